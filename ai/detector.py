@@ -30,6 +30,8 @@ else:
     device = "cpu"
 
 # CLIP 모델 로드 (ViT-B/16)
+# 모델을 바꾸면 EMBEDDING_MODEL_VERSION 도 함께 올려야 백엔드가 기존 임베딩을 다시 추출한다
+MODEL_VERSION = os.getenv("EMBEDDING_MODEL_VERSION", "v1")
 clip_model, clip_preprocess = clip.load("ViT-B/16", device=device)
 clip_model.eval()
 transform = clip_preprocess  # CLIP 전처리 transform
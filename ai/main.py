@@ -58,9 +58,20 @@ def extract_embedding_from_url(url: str):
         # ✅ 이미지 정상 다운로드 확인
         if response.status_code != 200:
             return {"embedding": [], "features": [], "success": False, "error": "이미지 요청 실패"}
+    except Exception as e:
+        print(f"❌ 이미지 다운로드 실패: {e}")
+        return {"embedding": [], "features": [], "success": False, "error": f"이미지 다운로드 실패: {str(e)}"}
+
+    return extract_embedding_from_bytes(response.content, url)
 
+# ================ #
+# 이미지 바이트에서 임베딩 추출 #
+# ================ #
+def extract_embedding_from_bytes(content: bytes, source: str = "upload"):
+    """이미지 바이트에서 임베딩 및 특징 추출"""
+    try:
         # 이미지 바이트를 버퍼로 변환
-        image_bytes = io.BytesIO(response.content)
+        image_bytes = io.BytesIO(content)
 
         # PIL 이미지로 로드
         image_pil = Image.open(image_bytes)
@@ -73,7 +84,7 @@ def extract_embedding_from_url(url: str):
         # RGB 이미지를 numpy 배열로 변환
         image_cv = np.array(image_pil)
 
-        print(f"이미지 로드 성공: {url}, shape={image_cv.shape}, dtype={image_cv.dtype}")
+        print(f"이미지 로드 성공: {source}, shape={image_cv.shape}, dtype={image_cv.dtype}")
 
         # 이미지가 8비트가 아니면 변환
         if image_cv.dtype != np.uint8:
@@ -114,6 +125,7 @@ def extract_embedding_from_url(url: str):
         return {
             "embedding": embedding.cpu().numpy().flatten().tolist(),
             "features": feature.tolist(),
+            "model_version": detector.MODEL_VERSION,
             "success": True
         }
 
@@ -266,7 +278,8 @@ async def extract_embedding_from_url_api(request: ImageRequest):
         if not result["success"]:
             error_msg = result.get("error", "임베딩 생성 실패")
             print(f"❌ 임베딩 추출 실패: {error_msg}")
-            raise HTTPException(status_code=500, detail=error_msg)
+            # 이미지 자체의 문제이므로 재시도 대상(5xx)과 구분
+            raise HTTPException(status_code=422, detail=error_msg)
 
         print(f"✅ 임베딩 추출 성공: 임베딩 길이={len(result['embedding'])}, 특징 길이={len(result['features'])}")
         return result
@@ -278,6 +291,50 @@ async def extract_embedding_from_url_api(request: ImageRequest):
         import traceback
         traceback.print_exc()
         raise HTTPException(status_code=500, detail=f"현재 URL 임베딩 추출 중 오류 발생: {str(e)}")
+@app.post("/extract-embedding")
+async def extract_embedding_api(file: UploadFile = File(...)):
+    """ 업로드된 이미지 바이트(multipart)에서 임베딩을 추출하는 API (URL 다운로드 없음) """
+    try:
+        content = await file.read()
+        if not content:
+            raise HTTPException(status_code=400, detail="이미지 파일이 비어 있습니다.")
+
+        result = extract_embedding_from_bytes(content, file.filename or "upload")
+
+        if not result["success"]:
+            error_msg = result.get("error", "임베딩 생성 실패")
+            print(f"❌ 임베딩 추출 실패: {error_msg}")
+            # 이미지 자체의 문제이므로 재시도 대상(5xx)과 구분
+            raise HTTPException(status_code=422, detail=error_msg)
+
+        print(f"✅ 임베딩 추출 성공: 임베딩 길이={len(result['embedding'])}, 특징 길이={len(result['features'])}")
+        return result
+    except HTTPException as he:
+        raise he
+    except Exception as e:
+        print(f"❌ 예상치 못한 오류: {str(e)}")
+        import traceback
+        traceback.print_exc()
+        raise HTTPException(status_code=500, detail=f"이미지 임베딩 추출 중 오류 발생: {str(e)}")
+@app.post("/extract-embeddings")
+async def extract_embeddings_api(files: List[UploadFile] = File(...)):
+    """ 한 게시글의 이미지 여러 장을 한 번에 처리. 결과는 업로드 순서와 같고, 실패한 이미지는 success=False """
+    try:
+        results = []
+        for file in files:
+            content = await file.read()
+            if not content:
+                results.append({"embedding": [], "features": [], "success": False, "error": "이미지 파일이 비어 있습니다."})
+                continue
+            results.append(extract_embedding_from_bytes(content, file.filename or "upload"))
+
+        print(f"✅ 일괄 임베딩 추출 완료: {sum(1 for r in results if r['success'])}/{len(results)}개 성공")
+        return {"results": results}
+    except Exception as e:
+        print(f"❌ 예상치 못한 오류: {str(e)}")
+        import traceback
+        traceback.print_exc()
+        raise HTTPException(status_code=500, detail=f"이미지 임베딩 일괄 추출 중 오류 발생: {str(e)}")
 # ================ #
 # FastAPI 실행 #
 # ================ #
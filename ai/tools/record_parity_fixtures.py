@@ -0,0 +1,103 @@
+"""
+Java SimilarityEngine 패리티 테스트용 기대값 기록 스크립트.
+
+Java 가 매칭 점수로 쓰는 임베딩 코사인 유사도를 실제 main.compare_embeddings (/compare-embeddings, torch) 로 계산해
+src/test/resources/similarity/python-parity.json 에 저장한다.
+입력 값은 Java 쪽 float[] 와 동일하도록 float32 로 반올림해 기록한다.
+SimilarityEngineTest 는 이 파일이 있을 때만 파이썬 패리티를 검증하므로, 파이썬 쪽 유사도 계산을 바꾸면 다시 실행해 커밋한다.
+(reference-cases.json 은 같은 케이스를 float64 로 다시 구현해 계산한 값이며 이 스크립트의 출력이 아니다.
+ python tools/record_parity_fixtures.py --reference 로 torch 없이 다시 만들 수 있다.)
+
+사용법 (ai 디렉토리, requirements.txt 설치 환경에서): python tools/record_parity_fixtures.py
+"""
+import asyncio
+import json
+import math
+import os
+import random
+import struct
+import sys
+
+FIXTURE_DIR = os.path.join(
+    os.path.dirname(os.path.abspath(__file__)),
+    "..", "..", "src", "test", "resources", "similarity",
+)
+COSINE_EPS = 1e-8
+
+
+def f32(value):
+    return struct.unpack("f", struct.pack("f", value))[0]
+
+
+def vector(rng, dim, normalize=False):
+    values = [rng.gauss(0, 1) for _ in range(dim)]
+    if normalize:
+        norm = math.sqrt(sum(v * v for v in values))
+        values = [v / norm for v in values]
+    return [f32(v) for v in values]
+
+
+def perturb(rng, base, noise):
+    return [f32(v + rng.gauss(0, noise)) for v in base]
+
+
+def build_cases(rng):
+    emb = vector(rng, 512, normalize=True)
+    small = vector(rng, 7)
+
+    return [
+        ("identical", emb, emb),
+        ("near_duplicate", emb, perturb(rng, emb, 0.01)),
+        ("similar", emb, perturb(rng, emb, 0.05)),
+        ("unrelated", emb, vector(rng, 512, normalize=True)),
+        ("opposite", small, [f32(-v) for v in small]),
+        ("orthogonal", [1.0, 0.0, 0.0, 0.0], [0.0, 1.0, 0.0, 0.0]),
+        ("unnormalized", small, perturb(rng, small, 0.1)),
+        ("zero_embedding", [0.0, 0.0, 0.0], [1.0, 2.0, 3.0]),
+        ("odd_length_tail", vector(rng, 37), vector(rng, 37)),
+    ]
+
+
+def reference_cosine(e1, e2):
+    dot = sum(a * b for a, b in zip(e1, e2))
+    norm1 = math.sqrt(sum(a * a for a in e1))
+    norm2 = math.sqrt(sum(b * b for b in e2))
+    return dot / (max(norm1, COSINE_EPS) * max(norm2, COSINE_EPS))
+
+
+def python_cosine():
+    import torch
+
+    sys.path.insert(0, os.path.dirname(os.path.dirname(os.path.abspath(__file__))))
+    from main import CompareEmbeddingsRequest, compare_embeddings  # noqa: E402
+
+    def score(e1, e2):
+        request = CompareEmbeddingsRequest(finding_embedding=e1, sighted_embedding=e2)
+        return asyncio.run(compare_embeddings(request))["similarity"]
+
+    return score, f"ai/main.py /compare-embeddings (torch {torch.__version__})"
+
+
+def main():
+    if "--reference" in sys.argv:
+        score, source = reference_cosine, "float64 reimplementation of ai/main.py /compare-embeddings " \
+                                          "(not recorded from ai/main.py; see python-parity.json)"
+        output = "reference-cases.json"
+    else:
+        score, source = python_cosine()
+        output = "python-parity.json"
+
+    rng = random.Random(20250301)
+    cases = [
+        {"name": name, "embedding1": e1, "embedding2": e2, "expected": float(score(e1, e2))}
+        for name, e1, e2 in build_cases(rng)
+    ]
+
+    path = os.path.normpath(os.path.join(FIXTURE_DIR, output))
+    with open(path, "w") as f:
+        json.dump({"source": source, "cases": cases}, f)
+    print(f"recorded {len(cases)} cases -> {path}")
+
+
+if __name__ == "__main__":
+    main()
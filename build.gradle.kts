@@ -30,6 +30,7 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-security")
     implementation("org.springframework.boot:spring-boot-starter-websocket:3.4.1")
+    implementation("io.projectreactor.netty:reactor-netty") // STOMP 브로커 릴레이 (app.websocket.broker.mode=relay)
     implementation("org.springframework.boot:spring-boot-starter-oauth2-client")
     implementation("org.springframework.boot:spring-boot-starter-mail")
     implementation("org.springframework.boot:spring-boot-starter-data-jdbc")
@@ -79,6 +80,12 @@ dependencies {
     // csv
     implementation("org.apache.commons:commons-csv:1.9.0")
 
+    // AI 서버 호출 재시도/서킷브레이커/벌크헤드
+    implementation("io.github.resilience4j:resilience4j-circuitbreaker:2.2.0")
+    implementation("io.github.resilience4j:resilience4j-retry:2.2.0")
+    implementation("io.github.resilience4j:resilience4j-bulkhead:2.2.0")
+    implementation("io.github.resilience4j:resilience4j-micrometer:2.2.0")
+
     implementation("org.springframework.kafka:spring-kafka")
     testImplementation("org.springframework.kafka:spring-kafka-test")
 
@@ -88,6 +95,33 @@ dependencies {
     implementation ("com.fasterxml.jackson.datatype:jackson-datatype-jsr310:2.18.2")
 }
 
+// 유사도 계산에 사용하는 Vector API (incubator 모듈)
+tasks.withType<JavaCompile> {
+    options.compilerArgs.add("--add-modules=jdk.incubator.vector")
+}
+
 tasks.withType<Test> {
-    useJUnitPlatform()
+    jvmArgs("--add-modules=jdk.incubator.vector")
+}
+
+tasks.test {
+    useJUnitPlatform {
+        excludeTags("benchmark")
+    }
+}
+
+// 지연 시간/메모리 벤치마크 (@Tag("benchmark")), test 에서는 제외하고 ./gradlew benchmark 로 따로 실행
+val benchmark by tasks.registering(Test::class) {
+    description = "Runs tests tagged as benchmark."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+    shouldRunAfter(tasks.test)
+}
+
+tasks.named<org.springframework.boot.gradle.tasks.run.BootRun>("bootRun") {
+    jvmArgs("--add-modules=jdk.incubator.vector")
 }
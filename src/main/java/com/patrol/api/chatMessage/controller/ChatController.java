@@ -27,22 +27,28 @@ import java.util.List;
 @RequiredArgsConstructor
 @Tag(name = "채팅 기능", description = "실시간 1:1 채팅")
 public class ChatController {
+    private static final int MAX_MESSAGE_PAGE_SIZE = 100;
+
     private final ChatMessageService chatMessageService;
 
     @GetMapping("/rooms/{identifier}/messages")
     @ResponseBody
-    @Operation(summary = "채팅 메시지 히스토리 조회")
+    @Operation(summary = "채팅 메시지 히스토리 조회", description = "beforeId 보다 오래된 메시지를 limit 개씩 조회 (없으면 최신 페이지)")
     public RsData<Object> getChatMessages(@PathVariable("identifier") String identifier,
+                                          @RequestParam(value = "beforeId", required = false) Long beforeId,
+                                          @RequestParam(value = "limit", defaultValue = "50") int limit,
                                           @LoginUser Member loginUser) {
-        return chatMessageService.getChatMessages(identifier, loginUser);
+        return chatMessageService.getChatMessages(identifier, loginUser, beforeId,
+                Math.clamp(limit, 1, MAX_MESSAGE_PAGE_SIZE));
     }
 
     @PostMapping("/rooms/{identifier}/read")
     @ResponseBody
-    @Operation(summary = "메시지 읽음 표시")
+    @Operation(summary = "메시지 읽음 표시", description = "lastSeenId 까지 받은 메시지를 읽음 처리 (없으면 마지막 메시지까지), 처리한 개수를 반환")
     public RsData<Object> markMessagesAsRead(@PathVariable("identifier") String identifier,
+                                             @RequestParam(value = "lastSeenId", required = false) Long lastSeenId,
                                              @LoginUser Member loginUser) {
-        return chatMessageService.markMessagesAsRead(identifier, loginUser);
+        return chatMessageService.markMessagesAsRead(identifier, loginUser, lastSeenId);
     }
 
     @PostMapping("/images/{postId}")
@@ -0,0 +1,15 @@
+package com.patrol.api.chatMessage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// 채팅 히스토리 한 페이지 (오래된 순), 이전 페이지는 nextBeforeId 를 beforeId 로 넘겨 조회
+@Getter
+@AllArgsConstructor
+public class ChatMessagePageResponse {
+    private List<ResponseMessage> messages;
+    private boolean hasMore;
+    private Long nextBeforeId;
+}
@@ -0,0 +1,19 @@
+package com.patrol.api.chatMessage.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// 상대방이 lastReadMessageId 까지 읽었음을 발신자에게 알리는 읽음 확인 이벤트
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReadReceiptMessage {
+    private String roomIdentifier;
+    private Long readerId;
+    private Long lastReadMessageId;
+    private int readCount;
+    private LocalDateTime readAt;
+}
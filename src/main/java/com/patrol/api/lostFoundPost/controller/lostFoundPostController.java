@@ -5,6 +5,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.patrol.api.lostFoundPost.dto.LostFoundPostDetailResponseDto;
 import com.patrol.api.lostFoundPost.dto.LostFoundPostRequestDto;
 import com.patrol.api.lostFoundPost.dto.LostFoundPostResponseDto;
+import com.patrol.api.lostFoundPost.dto.SimilarPostResponseDto;
+import com.patrol.domain.ai.service.SimilarPostService;
 import com.patrol.domain.lostFoundPost.entity.PostStatus;
 import com.patrol.domain.lostFoundPost.service.LostFoundPostService;
 import com.patrol.domain.member.member.entity.Member;
@@ -29,7 +31,10 @@ import java.util.List;
 @Tag(name = "제보 게시글 API", description = "제보글")
 public class lostFoundPostController {
 
+    private static final int MAX_SIMILAR_POSTS = 50;
+
     private final LostFoundPostService lostFoundPostService;
+    private final SimilarPostService similarPostService;
     private final ObjectMapper objectMapper;
 
     @PostMapping
@@ -102,6 +107,15 @@ public class lostFoundPostController {
         return new RsData<>("200", "제보 게시글을 성공적으로 조회했습니다.", responseDto);
     }
 
+    @GetMapping("/{postId}/similar")
+    @Operation(summary = "이미지가 유사한 게시글 조회 (실종글이면 목격글, 목격글이면 실종글)")
+    public RsData<List<SimilarPostResponseDto>> getSimilarPosts(
+            @PathVariable(name = "postId") Long postId,
+            @RequestParam(name = "k", defaultValue = "10") int k) {
+        List<SimilarPostResponseDto> posts = similarPostService.getSimilarPosts(postId, Math.clamp(k, 1, MAX_SIMILAR_POSTS));
+        return new RsData<>("200", "유사 게시글을 성공적으로 호출했습니다.", posts);
+    }
+
     @GetMapping("/finding")
     @Operation(summary = "실종 게시글 목록 조회")
     public RsData<Page<LostFoundPostResponseDto>> getAllFindingPosts(
@@ -0,0 +1,13 @@
+package com.patrol.api.lostFoundPost.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimilarPostResponseDto {
+    private LostFoundPostResponseDto post;
+    private double similarity;
+}
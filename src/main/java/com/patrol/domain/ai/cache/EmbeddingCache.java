@@ -0,0 +1,111 @@
+package com.patrol.domain.ai.cache;
+
+import com.patrol.domain.ai.codec.EmbeddingCodec;
+import com.patrol.domain.ai.service.ExtractedEmbedding;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 이미지 내용 해시(SHA-256) -> 임베딩 캐시.
+ * L1: JVM 내 LRU, L2: Redis. 같은 사진이 다시 들어오면 다운로드/모델 호출 없이 임베딩을 재사용한다.
+ * 키에 현재 모델 버전을 포함하므로 모델을 바꾸면 이전 버전의 임베딩은 조회되지 않는다.
+ * Redis 장애는 캐시 미스로 취급한다.
+ */
+@Slf4j
+@Component
+public class EmbeddingCache {
+    private static final String KEY_PREFIX = "ai:embedding:";
+    private static final String SEPARATOR = ":";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String modelVersion;
+    private final long ttlDays;
+    private final Map<String, ExtractedEmbedding> localCache;
+
+    public EmbeddingCache(StringRedisTemplate redisTemplate,
+                          @Value("${app.embedding.cache.local-size:1000}") int localSize,
+                          @Value("${app.embedding.cache.ttl-days:30}") long ttlDays,
+                          @Value("${app.embedding.model-version:v1}") String modelVersion) {
+        this.redisTemplate = redisTemplate;
+        this.modelVersion = modelVersion;
+        this.ttlDays = ttlDays;
+        this.localCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ExtractedEmbedding> eldest) {
+                return size() > localSize;
+            }
+        });
+    }
+
+    public ExtractedEmbedding get(String contentHash) {
+        if (contentHash == null) {
+            return null;
+        }
+
+        String key = keyOf(contentHash);
+        ExtractedEmbedding cached = localCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        try {
+            String value = redisTemplate.opsForValue().get(key);
+            if (value == null) {
+                return null;
+            }
+            cached = decode(value, modelVersion);
+            localCache.put(key, cached);
+            return cached;
+        } catch (Exception e) {
+            log.warn("⚠️ 임베딩 캐시 조회 실패: hash={}, {}", contentHash, e.getMessage());
+            return null;
+        }
+    }
+
+    public void put(String contentHash, ExtractedEmbedding embedding) {
+        // 현재 버전이 아닌 모델의 결과는 캐시하지 않는다 (AI 서버 교체 중)
+        if (contentHash == null || embedding == null || !modelVersion.equals(embedding.modelVersion())) {
+            return;
+        }
+
+        String key = keyOf(contentHash);
+        localCache.put(key, embedding);
+        try {
+            redisTemplate.opsForValue().set(key, encode(embedding), ttlDays, TimeUnit.DAYS);
+        } catch (Exception e) {
+            log.warn("⚠️ 임베딩 캐시 저장 실패: hash={}, {}", contentHash, e.getMessage());
+        }
+    }
+
+    private String keyOf(String contentHash) {
+        return KEY_PREFIX + modelVersion + SEPARATOR + contentHash;
+    }
+
+    // "<embedding base64>:<features base64>" (features 가 없으면 빈 문자열)
+    private static String encode(ExtractedEmbedding embedding) {
+        Base64.Encoder encoder = Base64.getEncoder();
+        String features = embedding.features() != null
+                ? encoder.encodeToString(EmbeddingCodec.encode(embedding.features()))
+                : "";
+        return encoder.encodeToString(EmbeddingCodec.encode(embedding.embedding())) + SEPARATOR + features;
+    }
+
+    private static ExtractedEmbedding decode(String value, String modelVersion) {
+        Base64.Decoder decoder = Base64.getDecoder();
+        int separator = value.indexOf(SEPARATOR);
+        String features = value.substring(separator + 1);
+        return new ExtractedEmbedding(
+                EmbeddingCodec.decode(decoder.decode(value.substring(0, separator))),
+                features.isEmpty() ? null : EmbeddingCodec.decode(decoder.decode(features)),
+                modelVersion
+        );
+    }
+}
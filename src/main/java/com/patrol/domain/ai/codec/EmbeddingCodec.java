@@ -0,0 +1,74 @@
+package com.patrol.domain.ai.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 임베딩/특징 벡터의 바이너리 포맷 코덱.
+ * [버전 1byte][차원 int32][float32 * 차원] 순서의 little-endian 레이아웃을 사용한다.
+ */
+public final class EmbeddingCodec {
+    public static final byte VERSION = 1;
+    private static final int HEADER_SIZE = Byte.BYTES + Integer.BYTES;
+
+    private EmbeddingCodec() {
+    }
+
+    public static byte[] encode(float[] values) {
+        if (values == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + values.length * Float.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(VERSION).putInt(values.length);
+        buffer.asFloatBuffer().put(values);
+        return buffer.array();
+    }
+
+    public static float[] decode(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length < HEADER_SIZE) {
+            throw new IllegalArgumentException("임베딩 바이너리 길이가 올바르지 않음: " + bytes.length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("지원하지 않는 임베딩 포맷 버전: " + version);
+        }
+
+        int dimension = buffer.getInt();
+        if (dimension < 0 || buffer.remaining() != dimension * Float.BYTES) {
+            throw new IllegalArgumentException("임베딩 차원과 데이터 길이가 일치하지 않음: " + dimension);
+        }
+
+        float[] values = new float[dimension];
+        buffer.asFloatBuffer().get(values);
+        return values;
+    }
+
+    // 기존 TEXT 컬럼에 저장된 JSON 배열("[0.1, -0.2, ...]")을 변환
+    public static float[] fromJson(String json) {
+        if (json == null) {
+            return null;
+        }
+        String trimmed = json.trim();
+        if (!trimmed.startsWith("[") || !trimmed.endsWith("]")) {
+            throw new IllegalArgumentException("JSON 배열 형식이 아님");
+        }
+
+        String body = trimmed.substring(1, trimmed.length() - 1).trim();
+        if (body.isEmpty()) {
+            return new float[0];
+        }
+
+        String[] tokens = body.split(",");
+        float[] values = new float[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            values[i] = Float.parseFloat(tokens[i].trim());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,73 @@
+package com.patrol.domain.ai.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 게시글당 AI 이미지가 하나이던 시절(OneToOne)의 ai_image.lost_found_post_id 유니크 인덱스를 제거한다.
+ * ddl-auto update 는 기존 제약을 지우지 않으므로 MySQL 에서만 기동 시 한 번 확인한다.
+ * 외래키용 인덱스는 idx_ai_image_lost_found_post 가 대신한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AiImageSchemaMigration {
+    private static final String TABLE = "ai_image";
+    private static final String COLUMN = "lost_found_post_id";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void dropLegacyUniqueIndex() {
+        try {
+            for (String indexName : findLegacyUniqueIndexes()) {
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP INDEX `" + indexName + "`");
+                log.info("🧹 ai_image 게시글 유니크 인덱스 제거: {}", indexName);
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ ai_image 레거시 인덱스 확인 실패: {}", e.getMessage());
+        }
+    }
+
+    // lost_found_post_id 하나만으로 이루어진 유니크 인덱스
+    private List<String> findLegacyUniqueIndexes() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            if (!metaData.getDatabaseProductName().toLowerCase().contains("mysql")) {
+                return List.of();
+            }
+
+            Map<String, Set<String>> columnsByIndex = new HashMap<>();
+            try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), null, TABLE, true, false)) {
+                while (rs.next()) {
+                    String indexName = rs.getString("INDEX_NAME");
+                    if (indexName == null || "PRIMARY".equalsIgnoreCase(indexName)) {
+                        continue;
+                    }
+                    columnsByIndex.computeIfAbsent(indexName, name -> new HashSet<>())
+                            .add(rs.getString("COLUMN_NAME").toLowerCase());
+                }
+            }
+            return columnsByIndex.entrySet().stream()
+                    .filter(entry -> entry.getValue().equals(Set.of(COLUMN)))
+                    .map(Map.Entry::getKey)
+                    .toList();
+        }
+    }
+}
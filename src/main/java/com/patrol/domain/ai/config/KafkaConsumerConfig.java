@@ -1,6 +1,9 @@
 package com.patrol.domain.ai.config;
 
+import com.patrol.domain.ai.resilience.AiServiceUnavailableException;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -8,15 +11,29 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+import org.springframework.util.backoff.ExponentialBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
 
+@Slf4j
 @Configuration
 public class KafkaConsumerConfig {
+    private static final String DEAD_LETTER_SUFFIX = ".DLT";
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String kafkaServer;
+    @Value("${spring.kafka.consumer.max-poll-records:10}")
+    private int maxPollRecords;
+    @Value("${app.ai.consumer.retry-max-interval-ms:60000}")
+    private long retryMaxIntervalMillis;
+    @Value("${app.ai.consumer.max-retries:5}")
+    private int maxRetries;
     @Bean
     public ConsumerFactory<String, String> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
@@ -25,18 +42,64 @@ public class KafkaConsumerConfig {
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
-        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 10);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
 
         return new DefaultKafkaConsumerFactory<>(props);
     }
 
     @Bean(name = "batchFactory")
     public ConcurrentKafkaListenerContainerFactory<String, String> batchFactory(
-            ConsumerFactory<String, String> consumerFactory) {
+            ConsumerFactory<String, String> consumerFactory,
+            KafkaTemplate<String, String> kafkaTemplate) {
         ConcurrentKafkaListenerContainerFactory<String, String> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.setCommonErrorHandler(imageEventErrorHandler(kafkaTemplate));
         return factory;
     }
+
+    /**
+     * AI 서버 장애(AiServiceUnavailableException)는 기간 상한 없이 장애가 끝날 때까지 해당 파티션을 멈춰 두고 다시 받는다.
+     * 서킷 브레이커가 열린 동안의 재시도는 AI 서버를 호출하지 않고 바로 실패한다.
+     * DB 저장 실패 등 그 밖의 예외는 maxRetries 번까지만 다시 받고, 그래도 실패하면 {topic}.DLT 로 보내고 넘어간다.
+     */
+    private DefaultErrorHandler imageEventErrorHandler(KafkaTemplate<String, String> kafkaTemplate) {
+        DeadLetterPublishingRecoverer deadLetter = new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, e) -> new TopicPartition(record.topic() + DEAD_LETTER_SUFFIX, -1));
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler((record, e) -> {
+            log.error("🚨 image-events 재시도 소진, {}{} 로 이동: offset={}, {}",
+                    record.topic(), DEAD_LETTER_SUFFIX, record.offset(), e.getMessage());
+            deadLetter.accept(record, e);
+        }, boundedBackOff());
+        errorHandler.setBackOffFunction((record, e) -> isAiUnavailable(e) ? unboundedBackOff() : null);
+        return errorHandler;
+    }
+
+    // 간격은 1초부터 늘려 retryMaxIntervalMillis 에서 멈춘다 (max.poll.interval.ms 를 넘지 않도록)
+    private ExponentialBackOff unboundedBackOff() {
+        ExponentialBackOff backOff = new ExponentialBackOff(1000L, 2.0);
+        backOff.setMaxInterval(retryMaxIntervalMillis);
+        backOff.setMaxElapsedTime(Long.MAX_VALUE);
+        return backOff;
+    }
+
+    private ExponentialBackOff boundedBackOff() {
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(maxRetries);
+        backOff.setInitialInterval(1000L);
+        backOff.setMultiplier(2.0);
+        backOff.setMaxInterval(retryMaxIntervalMillis);
+        return backOff;
+    }
+
+    // 리스너 예외는 ListenerExecutionFailedException, BatchListenerFailedException 으로 감싸져 전달된다
+    private static boolean isAiUnavailable(Throwable e) {
+        for (Throwable current = e; current != null; current = current.getCause()) {
+            if (current instanceof AiServiceUnavailableException) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -1,5 +1,6 @@
 package com.patrol.domain.ai.entity;
 
+import com.patrol.domain.ai.codec.EmbeddingCodec;
 import com.patrol.domain.animal.enums.AnimalType;
 import com.patrol.domain.lostFoundPost.entity.LostFoundPost;
 import com.patrol.domain.lostFoundPost.entity.PostStatus;
@@ -7,6 +8,7 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
@@ -14,6 +16,12 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @NoArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_ai_image_embedded_at", columnList = "embedded_at, id"),
+        @Index(name = "idx_ai_image_model_version", columnList = "model_version, id"),
+        @Index(name = "idx_ai_image_lost_found_post", columnList = "lost_found_post_id"),
+        @Index(name = "idx_ai_image_embedding_source", columnList = "embedding_source_id")
+})
 public class AiImage {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,20 +32,79 @@ public class AiImage {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    // 바이너리 포맷 전환 이전의 JSON 텍스트 (마이그레이션 후 비워짐)
     @Column(columnDefinition = "TEXT")
     private String embedding;
 
     @Column(columnDefinition = "TEXT")
     private String features;
 
+    @Column(name = "embedding_vector", columnDefinition = "BLOB")
+    private byte[] embeddingVector;
+
+    @Column(name = "features_vector", columnDefinition = "BLOB")
+    private byte[] featuresVector;
+
+    // AI 서버에서 추출한 임베딩이 반영된 시각 (재매칭 스윕의 워터마크)
+    @Column(name = "embedded_at")
+    private LocalDateTime embeddedAt;
+
+    // 임베딩을 만든 모델 버전, 같은 버전끼리만 비교한다 (컬럼 추가 이전 임베딩은 v1 모델 결과)
+    @ColumnDefault("'v1'")
+    @Column(name = "model_version", length = 32)
+    private String modelVersion;
+
+    // 원본 이미지의 SHA-256 (임베딩 캐시 키)
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // 원본 이미지의 64비트 dHash (근접 중복 판별)
+    @Column(name = "perceptual_hash")
+    private Long perceptualHash;
+
+    // 모델 호출 없이 임베딩을 재사용한 근접 중복 원본 이미지 ID (직접 추출했으면 null)
+    // 재사용을 되돌리려면 해당 행의 model_version 을 비우면 재추출 작업이 다시 추출하면서 이 값도 비운다
+    @Column(name = "embedding_source_id")
+    private Long embeddingSourceId;
+
     @Enumerated(EnumType.STRING)
     private PostStatus status;
 
     @Enumerated(EnumType.STRING)
     private AnimalType animalType;
 
-    @OneToOne
+    // 게시글의 이미지마다 하나씩 존재한다
+    @ManyToOne
     @JoinColumn(name = "lost_found_post_id", nullable = false)
     private LostFoundPost lostFoundPost;
 
+    public boolean hasEmbedding() {
+        return embeddingVector != null || embedding != null;
+    }
+
+    public float[] getEmbeddingValues() {
+        return embeddingVector != null ? EmbeddingCodec.decode(embeddingVector) : EmbeddingCodec.fromJson(embedding);
+    }
+
+    public float[] getFeaturesValues() {
+        return featuresVector != null ? EmbeddingCodec.decode(featuresVector) : EmbeddingCodec.fromJson(features);
+    }
+
+    public void setEmbeddingValues(float[] values) {
+        this.embeddingVector = EmbeddingCodec.encode(values);
+        this.embedding = null;
+    }
+
+    public void setFeaturesValues(float[] values) {
+        this.featuresVector = EmbeddingCodec.encode(values);
+        this.features = null;
+    }
+
+    public void applyExtracted(float[] embeddingValues, float[] featuresValues, String modelVersion) {
+        setEmbeddingValues(embeddingValues);
+        setFeaturesValues(featuresValues);
+        this.modelVersion = modelVersion;
+        this.embeddedAt = LocalDateTime.now();
+        this.embeddingSourceId = null;
+    }
 }
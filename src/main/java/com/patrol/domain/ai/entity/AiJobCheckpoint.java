@@ -0,0 +1,42 @@
+package com.patrol.domain.ai.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 백그라운드 작업의 진행 위치. 재시작 후 마지막으로 처리한 지점부터 이어서 실행한다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "ai_job_checkpoint")
+public class AiJobCheckpoint {
+    @Id
+    @Column(name = "job_name", length = 64)
+    private String jobName;
+
+    @Column(name = "last_processed_at")
+    private LocalDateTime lastProcessedAt;
+
+    @Column(name = "last_id")
+    private Long lastId;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public AiJobCheckpoint(String jobName) {
+        this.jobName = jobName;
+        this.lastProcessedAt = LocalDateTime.of(1970, 1, 1, 0, 0);
+        this.lastId = 0L;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void advance(LocalDateTime processedAt, Long id) {
+        this.lastProcessedAt = processedAt;
+        this.lastId = id;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
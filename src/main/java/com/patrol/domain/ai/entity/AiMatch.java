@@ -0,0 +1,46 @@
+package com.patrol.domain.ai.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 임계값을 넘은 AI 이미지 매칭 기록.
+ * 두 이미지 ID 는 작은 값을 imageAId 로 정규화해 저장하므로 방향과 무관하게 한 쌍당 한 행만 존재한다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "ai_match",
+        uniqueConstraints = @UniqueConstraint(name = "uk_ai_match_pair",
+                columnNames = {"image_a_id", "image_b_id", "model_version"}),
+        indexes = @Index(name = "idx_ai_match_image_b", columnList = "image_b_id, model_version"))
+public class AiMatch {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "image_a_id", nullable = false)
+    private Long imageAId;
+
+    @Column(name = "image_b_id", nullable = false)
+    private Long imageBId;
+
+    @Column(name = "model_version", nullable = false, length = 32)
+    private String modelVersion;
+
+    private double similarity;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public AiMatch(Long imageId, Long otherImageId, String modelVersion, double similarity) {
+        this.imageAId = Math.min(imageId, otherImageId);
+        this.imageBId = Math.max(imageId, otherImageId);
+        this.modelVersion = modelVersion;
+        this.similarity = similarity;
+        this.createdAt = LocalDateTime.now();
+    }
+}
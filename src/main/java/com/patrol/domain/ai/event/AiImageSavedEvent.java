@@ -4,9 +4,13 @@ import com.patrol.domain.ai.entity.AiImage;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
+import java.util.List;
+
+// 한 게시글에 새로 등록된 AI 이미지들
 @Getter
 @RequiredArgsConstructor
 public class AiImageSavedEvent {
-    private final AiImage aiImage;
+    private final Long postId;
+    private final List<AiImage> aiImages;
 
 }
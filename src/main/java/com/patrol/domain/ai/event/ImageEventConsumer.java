@@ -1,107 +1,295 @@
 package com.patrol.domain.ai.event;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patrol.domain.ai.cache.EmbeddingCache;
 import com.patrol.domain.ai.entity.AiImage;
-import com.patrol.domain.ai.repository.AiImageRepository;
+import com.patrol.domain.ai.index.EmbeddingIndex;
+import com.patrol.domain.ai.metrics.AiPipelineMetrics;
+import com.patrol.domain.ai.metrics.AiPipelineMetrics.Stage;
+import com.patrol.domain.ai.resilience.AiServiceBusyException;
+import com.patrol.domain.ai.resilience.AiServiceUnavailableException;
+import com.patrol.domain.ai.resilience.ImageStorageUnavailableException;
 import com.patrol.domain.ai.service.AiClient;
+import com.patrol.domain.ai.service.AiImageService;
+import com.patrol.domain.ai.service.ExtractedEmbedding;
 import com.patrol.domain.ai.service.ImageProcessingService;
+import com.patrol.domain.animal.enums.AnimalType;
 import com.patrol.domain.lostFoundPost.entity.PostStatus;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.io.IOException;
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicLong;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ImageEventConsumer {
-    private final AiImageRepository aiImageRepository;
     private final AiClient aiClient;
+    private final AiImageService aiImageService;
     private final ObjectMapper objectMapper;
     private final ImageProcessingService imageProcessingService;
-    private static long totalMessageSize = 0;
-    private static final AtomicLong totalProcessingTime = new AtomicLong(0);
-    private static final AtomicLong messageCount = new AtomicLong(0);
+    private final EmbeddingIndex embeddingIndex;
+    private final EmbeddingCache embeddingCache;
+    private final AiPipelineMetrics pipelineMetrics;
 
-    @Async
+    @Value("${app.embedding.extraction.max-in-flight:8}")
+    private int maxInFlight;
+
+    // 리스너 스레드(concurrency) 전체가 함께 쓰는 추출 동시 요청 상한
+    private Semaphore inFlight;
+
+    // postId 는 게시글 단위 이벤트 이전 형식({"imageId", "imageUrl", ...})이면 null
+    private record ImageEvent(int index, Long postId, Long imageId, String imageUrl, String contentHash,
+                              Long perceptualHash, PostStatus status, AnimalType animalType) {
+    }
+
+    // reusedFrom: 근접 중복 원본의 임베딩을 재사용한 이미지 ID -> 원본 이미지 ID
+    // firstRetry: AI 서버 장애, 동시 호출 상한 초과, 이미지 저장소 장애로 추출하지 못한 첫 메시지 (다시 받아야 함)
+    private record ExtractionResult(Map<Long, ExtractedEmbedding> embeddings, Map<Long, Long> reusedFrom,
+                                    ImageEvent firstRetry, RuntimeException retryCause) {
+    }
+
+    @PostConstruct
+    public void init() {
+        inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * poll 한 번에 받은 메시지를 묶어서 처리한다.
+     * 같은 내용 해시의 임베딩이 캐시에 있거나 지각 해시가 가까운 이미지가 이미 임베딩돼 있으면 재사용하고,
+     * 나머지는 게시글 단위로 묶어
+     * 가상 스레드에서 일괄 추출을 요청한다. 동시에 진행하는 요청은 모든 리스너 스레드를 합쳐 maxInFlight 개 이하다.
+     * 결과는 한 번에 저장한 뒤 저장이 끝난 경우에만 오프셋을 커밋한다.
+     * 저장에 실패하면 커밋하지 않고 예외를 던져 배치 전체를 다시 받는다 (재시도를 소진하면 image-events.DLT 로 보냄).
+     * AI 서버 장애, 동시 호출 상한 초과, 이미지 저장소 장애로 추출하지 못한 메시지가 있으면 성공한 결과는 저장하되,
+     * 해당 메시지부터는 커밋하지 않고 에러 핸들러의 백오프 이후 다시 받는다 (AI 서버 장애는 기간 상한 없이, 나머지는 횟수 제한).
+     */
     @KafkaListener(
             topics = "image-events",
             groupId = "${spring.kafka.groups.ai-group-id}",
             concurrency = "3",
             containerFactory = "batchFactory"
     )
-    public void processImageEvent(@Payload String message) throws IOException {
-        totalMessageSize += message.getBytes().length;
+    public void processImageEvents(List<ConsumerRecord<String, String>> records, Acknowledgment ack) {
         long startTime = System.currentTimeMillis();
-        try {
-            log.info("🔍 Consumer received message: {}", message);
-            Map<String, String> event = objectMapper.readValue(message, new TypeReference<>() {});
-            Long imageId = Long.parseLong(event.get("imageId"));
-            String imageUrl = event.get("imageUrl");
-
-            log.info("🔍 AI 서버에 이미지 분석 요청: imageId={}", imageId);
-            Map<String, String> embeddingData = aiClient.extractEmbeddingAndFeaturesFromUrl(imageUrl);
+        log.info("🔍 Consumer received batch: {}건", records.size());
 
-            if (!embeddingData.containsKey("embedding")) {
-                throw new RuntimeException("🚨 임베딩 추출 실패: imageId=" + imageId);
-            }
+        Collection<ImageEvent> events = parseEvents(records);
+        ExtractionResult extraction = extractEmbeddings(events);
+        Map<Long, ExtractedEmbedding> embeddings = extraction.embeddings();
 
-            PostStatus postStatus = saveEmbeddingData(embeddingData, imageId);
+        List<AiImage> savedImages = List.of();
+        if (!embeddings.isEmpty()) {
+            Timer.Sample saveSample = pipelineMetrics.start();
+            savedImages = aiImageService.saveEmbeddings(embeddings, extraction.reusedFrom());
+            pipelineMetrics.stopForBatch(saveSample, Stage.DB_SAVE);
+        }
+        savedImages.forEach(embeddingIndex::upsert);
 
-            if (postStatus == PostStatus.FINDING) {
-                log.info("📩 FINDING 이미지 유사도 분석 요청: imageId={}", imageId);
-                imageProcessingService.asyncProcessImageFind(imageId);
-            } else if (postStatus == PostStatus.SIGHTED) {
-                log.info("📩 SIGHTED 이미지 유사도 분석 요청: imageId={}", imageId);
-                imageProcessingService.asyncProcessSightedImage(imageId);
-            }
+        // 게시글마다 한 번만 유사도 분석을 요청한다
+        savedImages.stream()
+                .map(aiImage -> aiImage.getLostFoundPost().getId())
+                .distinct()
+                .forEach(postId -> {
+                    log.info("📩 게시글 유사도 분석 요청: postId={}", postId);
+                    imageProcessingService.asyncProcessPost(postId);
+                });
 
+        if (extraction.firstRetry() != null) {
+            log.warn("⏸️ {}, offset={} 이후 메시지는 재처리 예정", extraction.retryCause().getMessage(),
+                    records.get(extraction.firstRetry().index()).offset());
+            throw new BatchListenerFailedException(extraction.retryCause().getMessage(), extraction.retryCause(),
+                    extraction.firstRetry().index());
+        }
+        ack.acknowledge();
 
-        } catch (Exception e) {
-            log.error("🚨 Kafka 메시지 처리 중 오류 발생: {}", e.getMessage(), e);
-        }finally {
-            long endTime = System.currentTimeMillis();
-            long processingTime = endTime - startTime;
+        log.info("⏱️ Kafka 배치 처리 완료: {}건 중 {}건 저장, {}ms",
+                records.size(), savedImages.size(), System.currentTimeMillis() - startTime);
+    }
 
-            totalProcessingTime.addAndGet(processingTime);
-            messageCount.incrementAndGet();
+    // 같은 이미지에 대한 중복 이벤트는 마지막 것만 남긴다
+    private Collection<ImageEvent> parseEvents(List<ConsumerRecord<String, String>> records) {
+        Map<Long, ImageEvent> events = new LinkedHashMap<>();
+        long receivedAt = System.currentTimeMillis();
+        long messageBytes = 0;
+        for (int index = 0; index < records.size(); index++) {
+            ConsumerRecord<String, String> record = records.get(index);
+            String message = record.value();
+            if (message == null) {
+                continue;
+            }
+            messageBytes += message.getBytes(StandardCharsets.UTF_8).length;
+            try {
+                JsonNode event = objectMapper.readTree(message);
+                PostStatus status = enumOrNull(PostStatus.class, text(event, "status"));
+                AnimalType animalType = enumOrNull(AnimalType.class, text(event, "animalType"));
+                String postId = text(event, "postId");
 
-            log.info("⏱️ Kafka 메시지 처리 완료 (총 소요 시간): {}ms", processingTime);
+                JsonNode images = event.has("images") ? event.get("images") : objectMapper.createArrayNode().add(event);
+                for (JsonNode image : images) {
+                    Long imageId = Long.parseLong(text(image, "imageId"));
+                    String perceptualHash = text(image, "perceptualHash");
+                    events.put(imageId, new ImageEvent(index, postId != null ? Long.parseLong(postId) : null, imageId,
+                            text(image, "imageUrl"), text(image, "contentHash"),
+                            perceptualHash != null ? Long.parseLong(perceptualHash) : null, status, animalType));
+                }
+                pipelineMetrics.record(Stage.KAFKA_LAG, Duration.ofMillis(Math.max(0, receivedAt - record.timestamp())),
+                        status, animalType);
+            } catch (Exception e) {
+                log.error("🚨 잘못된 Kafka 메시지 건너뜀 (offset={}): {}", record.offset(), e.getMessage());
+            }
         }
+        pipelineMetrics.recordBatch(records.size(), messageBytes);
+        return events.values();
     }
 
-    @Transactional
-    protected PostStatus saveEmbeddingData (Map<String, String> embeddingData, Long imageId) {
-        AiImage aiImage = aiImageRepository.findById(imageId)
-                .orElseThrow(() -> new IllegalArgumentException("해당 ID의 이미지가 존재하지 않음: " + imageId));
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value != null && !value.isNull() ? value.asText() : null;
+    }
 
-        aiImage.setEmbedding(embeddingData.get("embedding"));
-        aiImage.setFeatures(embeddingData.get("features"));
-        aiImageRepository.save(aiImage);
-        log.info("✅ 임베딩 데이터 저장 완료: imageId={}", imageId);
-        return aiImage.getStatus();
+    private static <E extends Enum<E>> E enumOrNull(Class<E> type, String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
-    @Scheduled(fixedRate = 60000) // 1분(60초)마다 실행
-    public void logAverageProcessingTime() {
-        long processedMessages = messageCount.get();
-        if (processedMessages > 0) {
-            long avgProcessingTime = totalProcessingTime.get() / processedMessages;
-            log.info("📊 평균 Kafka 메시지 처리 속도: {}ms", avgProcessingTime);
-
-            totalProcessingTime.set(0);
-            messageCount.set(0);
-        } else {
-            log.info("📊 현재 Kafka 메시지 처리 없음.");
+
+    private ExtractionResult extractEmbeddings(Collection<ImageEvent> events) {
+        Map<Long, ExtractedEmbedding> embeddings = new LinkedHashMap<>();
+        Map<Long, Long> reusedFrom = new HashMap<>();
+        Map<List<ImageEvent>, Future<List<ExtractedEmbedding>>> futures = new LinkedHashMap<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (List<ImageEvent> group : groupByPost(events, embeddings, reusedFrom)) {
+                futures.put(group, executor.submit(() -> {
+                    inFlight.acquire();
+                    try {
+                        log.info("🔍 AI 서버에 이미지 분석 요청: postId={}, {}개", group.get(0).postId(), group.size());
+                        ImageEvent first = group.get(0);
+                        List<Map<String, String>> results = aiClient.extractEmbeddingsFromUrls(
+                                group.stream().map(ImageEvent::imageUrl).toList(), first.status(), first.animalType());
+
+                        List<ExtractedEmbedding> extracted = new ArrayList<>(group.size());
+                        for (int i = 0; i < group.size(); i++) {
+                            ExtractedEmbedding embedding = ExtractedEmbedding.fromJson(results.get(i));
+                            embeddingCache.put(group.get(i).contentHash(), embedding);
+                            extracted.add(embedding);
+                        }
+                        return extracted;
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
         }
+
+        ImageEvent firstRetry = null;
+        RuntimeException retryCause = null;
+        for (Map.Entry<List<ImageEvent>, Future<List<ExtractedEmbedding>>> entry : futures.entrySet()) {
+            List<ImageEvent> group = entry.getKey();
+            try {
+                List<ExtractedEmbedding> extracted = entry.getValue().get();
+                for (int i = 0; i < group.size(); i++) {
+                    if (extracted.get(i) != null) {
+                        embeddings.put(group.get(i).imageId(), extracted.get(i));
+                    } else {
+                        log.error("🚨 임베딩 추출 실패: imageId={}", group.get(i).imageId());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("임베딩 추출 대기 중 인터럽트 발생", e);
+            } catch (ExecutionException e) {
+                if (isRetryable(e.getCause())) {
+                    for (ImageEvent event : group) {
+                        if (firstRetry == null || event.index() < firstRetry.index()) {
+                            firstRetry = event;
+                            retryCause = (RuntimeException) e.getCause();
+                        }
+                    }
+                } else {
+                    log.error("🚨 임베딩 추출 실패: postId={}, {}", group.get(0).postId(), e.getCause().getMessage());
+                }
+            }
+        }
+        return new ExtractionResult(embeddings, reusedFrom, firstRetry, retryCause);
+    }
+
+    private static boolean isRetryable(Throwable e) {
+        return e instanceof AiServiceUnavailableException || e instanceof AiServiceBusyException
+                || e instanceof ImageStorageUnavailableException;
     }
 
+    /**
+     * 캐시에 있거나 근접 중복 원본이 있는 이미지는 바로 결과에 넣고, 나머지는 게시글별로 묶는다.
+     * 근접 중복 원본을 쓴 경우 reusedFrom 에 원본 ID 를 남겨 저장 시 기록한다.
+     * 이전 형식 이벤트는 이미지 하나가 한 묶음.
+     */
+    private List<List<ImageEvent>> groupByPost(Collection<ImageEvent> events, Map<Long, ExtractedEmbedding> embeddings,
+                                               Map<Long, Long> reusedFrom) {
+        List<ImageEvent> pending = new ArrayList<>();
+        Map<Long, Long> nearDuplicates = new HashMap<>();
+        for (ImageEvent event : events) {
+            ExtractedEmbedding cached = embeddingCache.get(event.contentHash());
+            if (cached != null) {
+                log.info("♻️ 캐시된 임베딩 재사용: imageId={}", event.imageId());
+                embeddings.put(event.imageId(), cached);
+                continue;
+            }
+            Long sourceId = embeddingIndex.findNearDuplicate(event.perceptualHash());
+            if (sourceId != null) {
+                nearDuplicates.put(event.imageId(), sourceId);
+            }
+            pending.add(event);
+        }
+
+        Map<Long, ExtractedEmbedding> sources = nearDuplicates.isEmpty()
+                ? Map.of()
+                : aiImageService.findEmbeddings(new HashSet<>(nearDuplicates.values()));
+
+        List<List<ImageEvent>> groups = new ArrayList<>();
+        Map<Long, List<ImageEvent>> byPost = new HashMap<>();
+        for (ImageEvent event : pending) {
+            Long sourceId = nearDuplicates.get(event.imageId());
+            ExtractedEmbedding duplicate = sourceId != null ? sources.get(sourceId) : null;
+            if (duplicate != null) {
+                log.info("♻️ 근접 중복 이미지의 임베딩 재사용: imageId={}, sourceId={}", event.imageId(), sourceId);
+                embeddings.put(event.imageId(), duplicate);
+                reusedFrom.put(event.imageId(), sourceId);
+                continue;
+            }
+
+            if (event.postId() == null) {
+                groups.add(List.of(event));
+                continue;
+            }
+            byPost.computeIfAbsent(event.postId(), postId -> {
+                List<ImageEvent> group = new ArrayList<>();
+                groups.add(group);
+                return group;
+            }).add(event);
+        }
+        return groups;
+    }
 }
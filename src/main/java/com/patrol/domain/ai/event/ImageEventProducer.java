@@ -1,17 +1,20 @@
 package com.patrol.domain.ai.event;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patrol.domain.ai.entity.AiImage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
@@ -19,20 +22,44 @@ import java.util.concurrent.TimeUnit;
 public class ImageEventProducer {
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final ObjectMapper objectMapper;
+    private final TaskScheduler taskScheduler;
 
     private static final String TOPIC = "image-events";
     private static final int MAX_RETRY_ATTEMPTS = 3;
-    private static final long RETRY_DELAY_MS = 5000;
+    private static final long INITIAL_RETRY_DELAY_MS = 1000;
 
-    public void sendImageEvent(Long imageId, String imageUrl) {
+    /**
+     * 한 게시글의 이미지들을 하나의 이벤트로 보낸다. 컨슈머는 게시글 단위로 한 번에 임베딩을 추출한다.
+     * {"postId", "status", "animalType", "images": [{"imageId", "imageUrl", "contentHash", "perceptualHash"}]}
+     * status/animalType 은 컨슈머 측 단계별 메트릭 태그에도 사용된다.
+     */
+    public void sendPostImagesEvent(Long postId, List<AiImage> aiImages) {
         try {
-            Map<String, String> event = new HashMap<>();
-            event.put("imageId", imageId.toString());
-            event.put("imageUrl", imageUrl);
+            AiImage first = aiImages.get(0);
+            Map<String, Object> event = new HashMap<>();
+            event.put("postId", postId.toString());
+            if (first.getStatus() != null) {
+                event.put("status", first.getStatus().name());
+            }
+            if (first.getAnimalType() != null) {
+                event.put("animalType", first.getAnimalType().name());
+            }
+            event.put("images", aiImages.stream().map(aiImage -> {
+                Map<String, String> image = new HashMap<>();
+                image.put("imageId", aiImage.getId().toString());
+                image.put("imageUrl", aiImage.getPath());
+                if (aiImage.getContentHash() != null) {
+                    image.put("contentHash", aiImage.getContentHash());
+                }
+                if (aiImage.getPerceptualHash() != null) {
+                    image.put("perceptualHash", aiImage.getPerceptualHash().toString());
+                }
+                return image;
+            }).toList());
 
             String eventJson = objectMapper.writeValueAsString(event);
 
-            sendWithRetry(imageId.toString(), eventJson, 0);
+            sendWithRetry(postId.toString(), eventJson, 0);
 
         } catch (Exception e) {
             log.error("🚨 Kafka 메시지 변환 실패: {}", e.getMessage(), e);
@@ -47,11 +74,10 @@ public class ImageEventProducer {
                 log.error("🚨 Kafka 이벤트 전송 실패 ({}차 시도): {}, 오류: {}", attempt + 1, message, ex.getMessage(), ex);
 
                 if (attempt < MAX_RETRY_ATTEMPTS) {
-                    try {
-                        TimeUnit.MILLISECONDS.sleep(RETRY_DELAY_MS);
-                    } catch (InterruptedException ignored) {}
-
-                    sendWithRetry(key, message, attempt + 1);
+                    // 콜백은 프로듀서 I/O 스레드에서 실행되므로 대기하지 않고 재전송을 예약한다
+                    long delay = INITIAL_RETRY_DELAY_MS << attempt;
+                    taskScheduler.schedule(() -> sendWithRetry(key, message, attempt + 1),
+                            Instant.now().plusMillis(delay));
                 } else {
                     log.error("🚨 Kafka 이벤트 전송 최종 실패: {}, 모든 재시도 완료", message);
                 }
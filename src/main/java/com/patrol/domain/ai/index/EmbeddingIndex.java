@@ -0,0 +1,527 @@
+package com.patrol.domain.ai.index;
+
+import com.patrol.domain.ai.codec.EmbeddingCodec;
+import com.patrol.domain.ai.entity.AiImage;
+import com.patrol.domain.ai.repository.AiImageRepository;
+import com.patrol.domain.ai.repository.EmbeddingVectorRef;
+import com.patrol.domain.ai.similarity.CandidateTimeWindow;
+import com.patrol.domain.ai.similarity.SimilarityEngine;
+import com.patrol.domain.animal.enums.AnimalType;
+import com.patrol.domain.lostFoundPost.entity.LostFoundPost;
+import com.patrol.domain.lostFoundPost.entity.PostStatus;
+import com.patrol.standard.util.Ut;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongPredicate;
+
+/**
+ * AiImage 임베딩에 대한 JVM 내 근사 최근접 이웃 인덱스.
+ * 게시글 상태(PostStatus), 동물 종류(AnimalType), 임베딩 모델 버전별로 HNSW 그래프를 분리해 관리한다.
+ * 현재 모델 버전 이미지의 지각 해시(dHash)도 함께 색인해 모델 호출 없이 근접 중복 이미지를 찾는다.
+ * 색인한 항목은 로컬 세그먼트 파일에도 기록해, 재기동 시 파일에서 먼저 채우고 이후 변경분만 DB 에서 읽는다.
+ * 파일의 항목은 DB 에 아직 있는지 확인하고, 마지막 동기화 이후 수정된 게시글의 이미지는 DB 값으로 다시 색인한다.
+ * 실행 중에는 게시글 수정/삭제 시 reindexPost/removePost 로 반영한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmbeddingIndex {
+    private static final int LOAD_CHUNK_SIZE = 500;
+    // 스냅샷의 마지막 embeddedAt 보다 이만큼 앞에서부터 DB 변경분을 읽는다 (커밋 순서 역전, 미기록 꼬리 대비)
+    private static final Duration DELTA_OVERLAP = Duration.ofMinutes(5);
+    // 게시글 단위로 묶기 전에 이미지 단위로 더 많이 찾아 둔다 (한 게시글의 여러 이미지가 상위를 차지하는 경우)
+    private static final int POST_SEARCH_OVERSAMPLING = 4;
+    // 근사 점수 상위 k * RERANK_OVERSAMPLING 개 게시글만 원본 임베딩으로 재계산
+    private static final int RERANK_OVERSAMPLING = 2;
+    // int8 양자화 오차로 임계값 근처 후보가 빠지지 않도록 근사 유사도에 두는 여유
+    private static final double QUANTIZATION_MARGIN = 0.02;
+
+    private final AiImageRepository aiImageRepository;
+    private final EmbeddingSegmentStore segmentStore;
+    private final SimilarityEngine similarityEngine;
+
+    @Value("${app.similarity.index.m:16}")
+    private int m;
+
+    @Value("${app.similarity.index.ef-construction:100}")
+    private int efConstruction;
+
+    @Value("${app.similarity.index.ef-search:100}")
+    private int efSearch;
+
+    @Value("${app.embedding.model-version:v1}")
+    private String currentModelVersion;
+
+    @Value("${app.embedding.near-duplicate.max-distance:2}")
+    private int nearDuplicateMaxDistance;
+
+    private PerceptualHashTable perceptualHashes;
+
+    private final Map<PartitionKey, HnswIndex> partitions = new ConcurrentHashMap<>();
+    private final Map<Long, IndexedImage> entries = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> imagesByPost = new ConcurrentHashMap<>();
+    // 파티션 내용이 바뀔 때마다 증가 (검색 결과 캐시 무효화용)
+    private final Map<PartitionKey, AtomicLong> generations = new ConcurrentHashMap<>();
+    private volatile boolean ready = false;
+
+    public record PartitionKey(PostStatus status, AnimalType animalType, String modelVersion) {
+    }
+
+    public record Match(Long aiImageId, double similarity) {
+    }
+
+    public record PostMatch(Long postId, double similarity) {
+    }
+
+    // truncated: 반경/시각 조건이 너무 좁아 인덱스 탐색 폭 안에서 k개를 채우지 못함 (후보를 조건으로 직접 모아야 함)
+    public record MatchSearch(List<Match> matches, boolean truncated) {
+    }
+
+    private record ImagePair(Long queryId, Long candidateId) {
+    }
+
+    private record IndexedImage(PartitionKey partition, Long postId, Double latitude, Double longitude,
+                                LocalDateTime eventAt) {
+    }
+
+    @PostConstruct
+    public void init() {
+        perceptualHashes = new PerceptualHashTable(nearDuplicateMaxDistance);
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long startTime = System.currentTimeMillis();
+        LocalDateTime syncStartedAt = LocalDateTime.now();
+
+        try {
+            EmbeddingSegmentStore.Snapshot snapshot = segmentStore.load();
+            // 동기화 시각이 없는 스냅샷(첫 기동, 이전 버전 파일)은 게시글 값을 확인할 기준이 없어 쓰지 않는다
+            LocalDateTime syncedAt = snapshot.syncedAt();
+            boolean trusted = syncedAt != null && !snapshot.records().isEmpty();
+            int restored = 0;
+            if (trusted) {
+                for (SegmentRecord record : snapshot.records()) {
+                    // 적재 중에 먼저 반영된 최신 임베딩은 덮어쓰지 않는다
+                    if (!entries.containsKey(record.id()) && index(record)) {
+                        restored++;
+                    }
+                }
+            }
+            long restoredAt = System.currentTimeMillis();
+
+            int loaded;
+            int dropped = 0;
+            if (!trusted) {
+                loaded = loadAllFromDb();
+            } else {
+                dropped = removeMissing(snapshot.records());
+                // 다른 노드가 반영한 임베딩도 놓치지 않도록 마지막 동기화 시각과 스냅샷의 마지막 embeddedAt 중 이른 쪽부터 읽는다
+                LocalDateTime embeddedSince = snapshot.maxEmbeddedAt() != null && snapshot.maxEmbeddedAt().isBefore(syncedAt)
+                        ? snapshot.maxEmbeddedAt()
+                        : syncedAt;
+                loaded = loadDeltaFromDb(embeddedSince.minus(DELTA_OVERLAP))
+                        + reloadModifiedPosts(syncedAt.minus(DELTA_OVERLAP));
+            }
+            segmentStore.markSynced(syncStartedAt);
+            ready = true;
+            log.info("✅ 임베딩 인덱스 적재 완료: 스냅샷 {}개({}ms, 삭제 확인 {}개) + DB {}개, 파티션 {}개, 지각 해시 {}개, {}ms",
+                    restored, restoredAt - startTime, dropped, loaded, partitions.size(), perceptualHashes.size(),
+                    System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("🚨 임베딩 인덱스 적재 실패, DB 조회 방식으로 대체: {}", e.getMessage(), e);
+        }
+    }
+
+    private int loadAllFromDb() {
+        long lastId = 0L;
+        int loaded = 0;
+        while (true) {
+            List<AiImage> chunk = aiImageRepository.findEmbeddedAfter(lastId, PageRequest.of(0, LOAD_CHUNK_SIZE));
+            if (chunk.isEmpty()) {
+                return loaded;
+            }
+            for (AiImage aiImage : chunk) {
+                if (!entries.containsKey(aiImage.getId()) && index(aiImage)) {
+                    loaded++;
+                }
+            }
+            lastId = chunk.get(chunk.size() - 1).getId();
+        }
+    }
+
+    // 스냅샷 이후 임베딩된 이미지만 읽는다 (겹치는 구간은 DB 값으로 덮어쓴다)
+    private int loadDeltaFromDb(LocalDateTime since) {
+        LocalDateTime lastAt = since;
+        long lastId = 0L;
+        int loaded = 0;
+        while (true) {
+            List<AiImage> chunk = aiImageRepository.findEmbeddedAfterTime(lastAt, lastId, PageRequest.of(0, LOAD_CHUNK_SIZE));
+            if (chunk.isEmpty()) {
+                return loaded;
+            }
+            for (AiImage aiImage : chunk) {
+                if (index(aiImage)) {
+                    loaded++;
+                }
+            }
+            AiImage last = chunk.get(chunk.size() - 1);
+            lastAt = last.getEmbeddedAt();
+            lastId = last.getId();
+        }
+    }
+
+    // 스냅샷에는 있지만 DB 에서 삭제된 이미지(삭제된 게시글의 이미지 포함)를 인덱스에서 뺀다
+    private int removeMissing(Collection<SegmentRecord> records) {
+        List<Long> ids = records.stream().map(SegmentRecord::id).toList();
+        int removed = 0;
+        for (int from = 0; from < ids.size(); from += LOAD_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + LOAD_CHUNK_SIZE, ids.size()));
+            Set<Long> existing = new HashSet<>(aiImageRepository.findExistingIds(chunk));
+            for (Long id : chunk) {
+                if (!existing.contains(id) && entries.containsKey(id)) {
+                    remove(id);
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    // since 이후 수정된 게시글의 이미지를 다시 색인한다 (위치, 분실/발견 시각 반영)
+    private int reloadModifiedPosts(LocalDateTime since) {
+        long lastId = 0L;
+        int loaded = 0;
+        while (true) {
+            List<AiImage> chunk = aiImageRepository.findEmbeddedOfPostsModifiedAfter(since, lastId, PageRequest.of(0, LOAD_CHUNK_SIZE));
+            if (chunk.isEmpty()) {
+                return loaded;
+            }
+            for (AiImage aiImage : chunk) {
+                if (index(aiImage)) {
+                    loaded++;
+                }
+            }
+            lastId = chunk.get(chunk.size() - 1).getId();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * searchPosts(postId, targetStatus, ...) 결과에 영향을 주는 파티션들의 세대.
+     * 질의 게시글 이미지가 속한 파티션과, 그 이미지들과 비교하는 대상 상태 파티션만 포함하므로
+     * 값이 같으면 이전 검색 결과를 그대로 써도 된다.
+     */
+    public Map<PartitionKey, Long> searchGenerations(Long postId, PostStatus targetStatus) {
+        Set<PartitionKey> queryKeys = new HashSet<>();
+        imagesByPost.getOrDefault(postId, Set.of()).forEach(imageId -> {
+            IndexedImage entry = entries.get(imageId);
+            if (entry != null) {
+                queryKeys.add(entry.partition());
+            }
+        });
+
+        Map<PartitionKey, Long> result = new HashMap<>();
+        generations.forEach((key, generation) -> {
+            boolean compared = key.status() == targetStatus && queryKeys.stream().anyMatch(query ->
+                    Objects.equals(key.modelVersion(), query.modelVersion())
+                            && isComparable(key.animalType(), query.animalType()));
+            if (compared || queryKeys.contains(key)) {
+                result.put(key, generation.get());
+            }
+        });
+        return result;
+    }
+
+    public void upsert(AiImage aiImage) {
+        if (!index(aiImage)) {
+            remove(aiImage.getId());
+        }
+    }
+
+    /**
+     * 수정된 게시글의 이미지를 DB 값으로 다시 색인한다. 게시글에서 빠졌거나 임베딩이 없어진 이미지는 제거한다.
+     */
+    public void reindexPost(Long postId) {
+        Set<Long> stale = new HashSet<>(imagesByPost.getOrDefault(postId, Set.of()));
+        for (AiImage aiImage : aiImageRepository.findAllByLostFoundPostId(postId)) {
+            upsert(aiImage);
+            stale.remove(aiImage.getId());
+        }
+        stale.forEach(this::remove);
+    }
+
+    // 삭제된 게시글의 이미지를 모두 제거한다 (세그먼트 파일에는 tombstone 으로 남는다)
+    public void removePost(Long postId) {
+        new HashSet<>(imagesByPost.getOrDefault(postId, Set.of())).forEach(this::remove);
+    }
+
+    public void remove(Long aiImageId) {
+        IndexedImage removed = entries.remove(aiImageId);
+        if (removed != null) {
+            HnswIndex partition = partitions.get(removed.partition());
+            if (partition != null) {
+                partition.remove(aiImageId);
+            }
+            perceptualHashes.remove(aiImageId);
+            imagesByPost.computeIfPresent(removed.postId(), (postId, ids) -> {
+                ids.remove(aiImageId);
+                return ids.isEmpty() ? null : ids;
+            });
+            segmentStore.append(SegmentRecord.tombstone(aiImageId));
+            touch(removed.partition());
+        }
+    }
+
+    /**
+     * 지각 해시가 가장 가까운 현재 모델 버전의 임베딩된 이미지 ID (해밍 거리 max-distance 이하, 없으면 null).
+     * 적재 중에도 이미 색인된 이미지만으로 조회한다.
+     */
+    public Long findNearDuplicate(Long perceptualHash) {
+        if (perceptualHash == null) {
+            return null;
+        }
+        PerceptualHashTable.Match match = perceptualHashes.nearest(perceptualHash);
+        return match != null ? match.id() : null;
+    }
+
+    /**
+     * 게시글의 이미지 전체를 질의로 대상 상태 파티션을 검색해, 게시글 단위로 묶은 상위 k개를 반환한다.
+     * 게시글 점수는 이미지 쌍 중 최고 유사도이며 거리 제한은 없다.
+     * 후보는 int8 근사 유사도로 고르고, 근사 점수 상위 게시글의 이미지 쌍만 원본 임베딩으로 다시 계산해 순위를 정한다.
+     * timeRange 가 있으면 분실/발견 시각이 그 범위 안인 게시글만 후보로 삼는다.
+     */
+    public List<PostMatch> searchPosts(Long postId, PostStatus targetStatus, int k, double threshold,
+                                       CandidateTimeWindow.Range timeRange) {
+        Set<Long> imageIds = imagesByPost.get(postId);
+        if (imageIds == null) {
+            return List.of();
+        }
+
+        Map<Long, Double> approximateByPost = new HashMap<>();
+        Map<Long, List<ImagePair>> pairsByPost = new HashMap<>();
+        for (Long imageId : imageIds) {
+            IndexedImage query = entries.get(imageId);
+            HnswIndex queryPartition = query != null ? partitions.get(query.partition()) : null;
+            Int8Vector vector = queryPartition != null ? queryPartition.vectorOf(imageId) : null;
+            if (vector == null) {
+                continue;
+            }
+
+            partitions.forEach((key, partition) -> {
+                if (key.status() != targetStatus
+                        || !Objects.equals(key.modelVersion(), query.partition().modelVersion())
+                        || !isComparable(key.animalType(), query.partition().animalType())) {
+                    return;
+                }
+                LongPredicate inTimeRange = id -> timeRange == null || withinTimeRange(entries.get(id), timeRange);
+                for (HnswIndex.Result result : partition.search(vector, k * POST_SEARCH_OVERSAMPLING, efSearch, inTimeRange)) {
+                    IndexedImage candidate = entries.get(result.id());
+                    if (result.similarity() >= threshold - QUANTIZATION_MARGIN
+                            && candidate != null && !postId.equals(candidate.postId())) {
+                        approximateByPost.merge(candidate.postId(), result.similarity(), Math::max);
+                        pairsByPost.computeIfAbsent(candidate.postId(), id -> new ArrayList<>())
+                                .add(new ImagePair(imageId, result.id()));
+                    }
+                }
+            });
+        }
+
+        List<Long> shortlist = approximateByPost.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+                .limit((long) k * RERANK_OVERSAMPLING)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (shortlist.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> rerankIds = new HashSet<>(imageIds);
+        shortlist.forEach(candidatePostId -> pairsByPost.get(candidatePostId)
+                .forEach(pair -> rerankIds.add(pair.candidateId())));
+        Map<Long, float[]> fullVectors = new HashMap<>();
+        for (EmbeddingVectorRef ref : aiImageRepository.findEmbeddingVectorsByIds(rerankIds)) {
+            float[] vector = toVector(ref);
+            if (vector != null) {
+                fullVectors.put(ref.id(), vector);
+            }
+        }
+
+        Map<Long, Double> exactByPost = new HashMap<>();
+        for (Long candidatePostId : shortlist) {
+            for (ImagePair pair : pairsByPost.get(candidatePostId)) {
+                float[] queryVector = fullVectors.get(pair.queryId());
+                float[] candidateVector = fullVectors.get(pair.candidateId());
+                if (queryVector != null && candidateVector != null && queryVector.length == candidateVector.length) {
+                    exactByPost.merge(candidatePostId, similarityEngine.cosine(queryVector, candidateVector), Math::max);
+                }
+            }
+        }
+
+        return exactByPost.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+                .limit(k)
+                .map(entry -> new PostMatch(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    /**
+     * 대상 상태의 파티션에서 반경 내에 있고 임계값 이상인 유사 이미지를 최대 k개 반환한다.
+     * 동물 종류가 지정되지 않은 이미지는 모든 종류의 파티션과 비교한다.
+     * 유사도는 int8 근사값이므로 임계값에 양자화 여유를 두며, 호출 측에서 원본 임베딩으로 다시 점수를 매긴다.
+     * timeRange 가 있으면 분실/발견 시각이 그 범위 안인 이미지만 비교한다.
+     * 조건을 통과하는 이미지가 드물어 k개를 채우지 못하면 탐색을 더 넓히지 않고 truncated 로 알린다.
+     */
+    public MatchSearch search(AiImage query, PostStatus targetStatus, double radiusKm, int k, double threshold,
+                              CandidateTimeWindow.Range timeRange) {
+        Int8Vector vector = Int8Vector.quantizeNormalized(toVector(query));
+        LostFoundPost post = query.getLostFoundPost();
+        if (vector == null || post == null || post.getLatitude() == null || post.getLongitude() == null) {
+            return new MatchSearch(List.of(), false);
+        }
+
+        double latitude = post.getLatitude();
+        double longitude = post.getLongitude();
+        LongPredicate withinRadius = id -> {
+            IndexedImage entry = entries.get(id);
+            return entry != null && entry.latitude() != null && entry.longitude() != null
+                    && (timeRange == null || withinTimeRange(entry, timeRange))
+                    && Ut.geo.distanceKm(latitude, longitude, entry.latitude(), entry.longitude()) <= radiusKm;
+        };
+
+        List<HnswIndex.Result> results = new ArrayList<>();
+        boolean truncated = false;
+        for (Map.Entry<PartitionKey, HnswIndex> partition : partitions.entrySet()) {
+            PartitionKey key = partition.getKey();
+            if (key.status() == targetStatus && Objects.equals(key.modelVersion(), query.getModelVersion())
+                    && isComparable(key.animalType(), post.getAnimalType())) {
+                HnswIndex.SearchResult found = partition.getValue().searchFiltered(vector, k, efSearch, withinRadius);
+                results.addAll(found.results());
+                truncated |= found.truncated();
+            }
+        }
+
+        List<Match> matches = results.stream()
+                .filter(result -> result.similarity() >= threshold - QUANTIZATION_MARGIN)
+                .sorted(Comparator.comparingDouble(HnswIndex.Result::similarity).reversed())
+                .limit(k)
+                .map(result -> new Match(result.id(), result.similarity()))
+                .toList();
+        return new MatchSearch(matches, truncated);
+    }
+
+    private boolean index(AiImage aiImage) {
+        Int8Vector vector = Int8Vector.quantizeNormalized(toVector(aiImage));
+        LostFoundPost post = aiImage.getLostFoundPost();
+        if (vector == null || post == null) {
+            return false;
+        }
+
+        // 상태/동물 종류는 게시글 값을 따른다 (후보 SQL 조회와 같은 기준)
+        SegmentRecord record = new SegmentRecord(aiImage.getId(), post.getId(), post.getStatus(),
+                post.getAnimalType(), aiImage.getModelVersion(), post.getLatitude(), post.getLongitude(),
+                aiImage.getPerceptualHash(), aiImage.getEmbeddedAt(), post.getEventAt(), vector);
+        if (!index(record)) {
+            return false;
+        }
+        segmentStore.append(record);
+        return true;
+    }
+
+    private boolean index(SegmentRecord record) {
+        if (record.status() == null) {
+            return false;
+        }
+
+        PartitionKey key = new PartitionKey(record.status(), record.animalType(), record.modelVersion());
+        IndexedImage previous = entries.get(record.id());
+        if (previous != null && !previous.partition().equals(key)) {
+            remove(record.id());
+        }
+
+        try {
+            partitions.computeIfAbsent(key, k -> new HnswIndex(m, efConstruction)).add(record.id(), record.vector());
+        } catch (IllegalArgumentException e) {
+            log.warn("⚠️ 임베딩 인덱싱 실패: imageId={}, {}", record.id(), e.getMessage());
+            return false;
+        }
+        entries.put(record.id(), new IndexedImage(key, record.postId(), record.latitude(), record.longitude(),
+                record.eventAt()));
+        imagesByPost.computeIfAbsent(record.postId(), postId -> ConcurrentHashMap.newKeySet()).add(record.id());
+        if (record.perceptualHash() != null && currentModelVersion.equals(record.modelVersion())) {
+            perceptualHashes.put(record.id(), record.perceptualHash());
+        } else {
+            perceptualHashes.remove(record.id());
+        }
+        touch(key);
+        return true;
+    }
+
+    private void touch(PartitionKey key) {
+        generations.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    private boolean isComparable(AnimalType candidateType, AnimalType queryType) {
+        return queryType == null || candidateType == null || candidateType == queryType;
+    }
+
+    private static boolean withinTimeRange(IndexedImage entry, CandidateTimeWindow.Range timeRange) {
+        return entry != null && timeRange.contains(entry.eventAt());
+    }
+
+
+    private float[] toVector(EmbeddingVectorRef ref) {
+        try {
+            float[] vector = ref.embeddingVector() != null
+                    ? EmbeddingCodec.decode(ref.embeddingVector())
+                    : EmbeddingCodec.fromJson(ref.embedding());
+            return vector != null && vector.length > 0 ? vector : null;
+        } catch (Exception e) {
+            log.error("🚨 임베딩 변환 실패: imageId={}, {}", ref.id(), e.getMessage());
+            return null;
+        }
+    }
+
+    private float[] toVector(AiImage aiImage) {
+        if (!aiImage.hasEmbedding()) {
+            return null;
+        }
+        try {
+            float[] vector = aiImage.getEmbeddingValues();
+            return vector.length > 0 ? vector : null;
+        } catch (Exception e) {
+            log.error("🚨 임베딩 변환 실패: {}", e.getMessage());
+            return null;
+        }
+    }
+}
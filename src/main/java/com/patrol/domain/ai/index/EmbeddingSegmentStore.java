@@ -0,0 +1,380 @@
+package com.patrol.domain.ai.index;
+
+import com.patrol.domain.animal.enums.AnimalType;
+import com.patrol.domain.lostFoundPost.entity.PostStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * 임베딩 인덱스의 로컬 스냅샷. 추가만 하는(append-only) 세그먼트 파일에 인덱스 항목을 기록하고
+ * 기동 시 FileChannel.map 으로 읽어 DB 전체를 다시 읽지 않고 인덱스를 채운다.
+ * 같은 ID 는 마지막 레코드가 유효하며, 삭제는 tombstone 레코드로 남긴다.
+ * 레코드: [int 길이][본문][int CRC32]. 기록 도중 종료돼 잘린 꼬리는 다음 기동 때 잘라낸다.
+ * 파일에 없는 최근 변경분은 EmbeddingIndex 가 embeddedAt 기준으로 DB 에서 다시 읽는다.
+ * 기동 시 DB 와 맞춘 시각은 옆의 .synced 파일에 남겨, 다음 기동 때 그 이후 수정/삭제된 게시글만 다시 확인하게 한다.
+ */
+@Slf4j
+@Component
+public class EmbeddingSegmentStore {
+    private static final long MAGIC = 0x5050454D42534547L; // "PPEMBSEG"
+    // 2: 게시글 분실/발견 시각(eventAt) 추가, 이전 형식 파일은 버리고 DB 에서 다시 만든다
+    private static final int FORMAT_VERSION = 2;
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final int HEADER_SIZE = Long.BYTES + Integer.BYTES;
+    private static final long MAP_WINDOW = 256L * 1024 * 1024;
+    private static final byte TYPE_UPSERT = 1;
+    private static final byte TYPE_TOMBSTONE = 2;
+
+    private final boolean enabled;
+    private final Path path;
+    private final Path syncedPath;
+    private final List<SegmentRecord> pending = new ArrayList<>();
+    private FileChannel writer;
+    private boolean failed = false;
+
+    // syncedAt: 이 스냅샷이 DB 와 마지막으로 맞춰진 시각 (모르면 null, 이 경우 게시글 값은 믿을 수 없다)
+    public record Snapshot(Collection<SegmentRecord> records, LocalDateTime maxEmbeddedAt, LocalDateTime syncedAt) {
+    }
+
+    public EmbeddingSegmentStore(@Value("${app.similarity.index.snapshot.enabled:true}") boolean enabled,
+                                 @Value("${app.similarity.index.snapshot.path:data/embedding-index.seg}") String path) {
+        this.enabled = enabled;
+        this.path = Path.of(path);
+        this.syncedPath = this.path.resolveSibling(this.path.getFileName() + ".synced");
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (writer != null) {
+            try {
+                writer.force(false);
+                writer.close();
+            } catch (IOException e) {
+                log.warn("⚠️ 임베딩 세그먼트 파일 닫기 실패: {}", e.getMessage());
+            }
+            writer = null;
+        }
+    }
+
+    /**
+     * 세그먼트 파일을 읽어 ID 별 최신 레코드를 반환하고 이후 기록을 위해 파일을 연다.
+     * 죽은 레코드가 살아 있는 레코드보다 많으면 살아 있는 레코드만으로 파일을 다시 쓴다.
+     * 파일이 없거나 읽을 수 없으면 빈 스냅샷을 반환한다 (DB 전체 적재).
+     */
+    public synchronized Snapshot load() {
+        if (!enabled) {
+            return new Snapshot(List.of(), null, null);
+        }
+
+        Map<Long, SegmentRecord> latest = new LinkedHashMap<>();
+        LocalDateTime maxEmbeddedAt = null;
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            int total = 0;
+            long validLength = HEADER_SIZE;
+            if (Files.exists(path) && Files.size(path) > 0) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    if (!hasValidHeader(channel)) {
+                        log.warn("⚠️ 임베딩 세그먼트 형식 불일치, 새로 생성: {}", path);
+                        validLength = 0;
+                    } else {
+                        long position = HEADER_SIZE;
+                        long size = channel.size();
+                        while (position < size) {
+                            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                                    Math.min(MAP_WINDOW, size - position));
+                            int consumed = 0;
+                            while (true) {
+                                SegmentRecord record = readRecord(buffer);
+                                if (record == null) {
+                                    break;
+                                }
+                                consumed = buffer.position();
+                                total++;
+                                if (record.isTombstone()) {
+                                    latest.remove(record.id());
+                                } else {
+                                    latest.put(record.id(), record);
+                                }
+                            }
+                            if (consumed == 0) {
+                                break;
+                            }
+                            position += consumed;
+                        }
+                        validLength = position;
+                        if (validLength < size) {
+                            log.warn("⚠️ 임베딩 세그먼트 꼬리 {} bytes 손상, 잘라냄", size - validLength);
+                        }
+                    }
+                }
+            } else {
+                validLength = 0;
+            }
+
+            for (SegmentRecord record : latest.values()) {
+                if (record.embeddedAt() != null && (maxEmbeddedAt == null || record.embeddedAt().isAfter(maxEmbeddedAt))) {
+                    maxEmbeddedAt = record.embeddedAt();
+                }
+            }
+
+            if (validLength == 0 || total > latest.size() * 2) {
+                rewrite(latest.values());
+                log.info("🗜️ 임베딩 세그먼트 재작성: 레코드 {}개 -> {}개", total, latest.size());
+            } else {
+                openWriter(validLength);
+            }
+
+            LocalDateTime syncedAt = latest.isEmpty() ? null : readSyncedAt();
+
+            for (SegmentRecord record : pending) {
+                write(record);
+            }
+            pending.clear();
+            return new Snapshot(latest.values(), maxEmbeddedAt, syncedAt);
+        } catch (Exception e) {
+            log.error("🚨 임베딩 세그먼트 읽기 실패, 스냅샷 없이 진행: {}", e.getMessage(), e);
+            failed = true;
+            pending.clear();
+            return new Snapshot(List.of(), null, null);
+        }
+    }
+
+    /**
+     * syncedAt 시점의 DB 상태가 파일에 모두 기록됐음을 남긴다. 기록한 레코드를 먼저 디스크에 내린다.
+     * 기동 중 비정상 종료되면 이전 기동의 시각이 남아 있어 다음 기동은 더 넓게 다시 확인한다.
+     */
+    public synchronized void markSynced(LocalDateTime syncedAt) {
+        if (!enabled || failed || writer == null) {
+            return;
+        }
+        try {
+            writer.force(false);
+            Path temp = syncedPath.resolveSibling(syncedPath.getFileName() + ".tmp");
+            Files.writeString(temp, String.valueOf(syncedAt.toInstant(ZoneOffset.UTC).toEpochMilli()));
+            Files.move(temp, syncedPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("⚠️ 임베딩 세그먼트 동기화 시각 기록 실패: {}", e.getMessage());
+        }
+    }
+
+    private LocalDateTime readSyncedAt() {
+        try {
+            if (!Files.exists(syncedPath)) {
+                return null;
+            }
+            long millis = Long.parseLong(Files.readString(syncedPath).trim());
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+        } catch (IOException | NumberFormatException e) {
+            log.warn("⚠️ 임베딩 세그먼트 동기화 시각 읽기 실패: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public synchronized void append(SegmentRecord record) {
+        if (!enabled || failed) {
+            return;
+        }
+        if (writer == null) {
+            // 적재(load) 전에 들어온 기록은 파일을 연 뒤에 쓴다
+            pending.add(record);
+            return;
+        }
+        try {
+            write(record);
+        } catch (IOException e) {
+            log.error("🚨 임베딩 세그먼트 기록 실패, 이후 기록 중단: {}", e.getMessage());
+            failed = true;
+        }
+    }
+
+    private void write(SegmentRecord record) throws IOException {
+        ByteBuffer buffer = encode(record);
+        while (buffer.hasRemaining()) {
+            writer.write(buffer);
+        }
+    }
+
+    private void openWriter(long validLength) throws IOException {
+        writer = FileChannel.open(path, StandardOpenOption.WRITE);
+        writer.truncate(validLength);
+        writer.position(validLength);
+    }
+
+    // 임시 파일에 쓴 뒤 원자적으로 교체한다
+    private void rewrite(Collection<SegmentRecord> records) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putLong(MAGIC).putInt(FORMAT_VERSION).flip();
+            channel.write(header);
+            for (SegmentRecord record : records) {
+                ByteBuffer buffer = encode(record);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        openWriter(Files.size(path));
+    }
+
+    private static boolean hasValidHeader(FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        return header.getLong() == MAGIC && header.getInt() == FORMAT_VERSION;
+    }
+
+    private static ByteBuffer encode(SegmentRecord record) {
+        byte[] status = bytesOf(record.status() != null ? record.status().name() : null);
+        byte[] animalType = bytesOf(record.animalType() != null ? record.animalType().name() : null);
+        byte[] modelVersion = bytesOf(record.modelVersion());
+        int dimension = record.isTombstone() ? 0 : record.vector().dimension();
+
+        int payloadSize = 1 + Long.BYTES;
+        if (!record.isTombstone()) {
+            payloadSize += Long.BYTES
+                    + stringSize(status) + stringSize(animalType) + stringSize(modelVersion)
+                    + Double.BYTES * 2 + 1 + Long.BYTES + Long.BYTES + Long.BYTES
+                    + Float.BYTES + Integer.BYTES + dimension;
+        }
+
+        ByteBuffer payload = ByteBuffer.allocate(payloadSize);
+        payload.put(record.isTombstone() ? TYPE_TOMBSTONE : TYPE_UPSERT);
+        payload.putLong(record.id());
+        if (!record.isTombstone()) {
+            payload.putLong(record.postId());
+            putString(payload, status);
+            putString(payload, animalType);
+            putString(payload, modelVersion);
+            payload.putDouble(record.latitude() != null ? record.latitude() : Double.NaN);
+            payload.putDouble(record.longitude() != null ? record.longitude() : Double.NaN);
+            payload.put((byte) (record.perceptualHash() != null ? 1 : 0));
+            payload.putLong(record.perceptualHash() != null ? record.perceptualHash() : 0L);
+            payload.putLong(record.embeddedAt() != null ? record.embeddedAt().toInstant(ZoneOffset.UTC).toEpochMilli() : -1L);
+            payload.putLong(record.eventAt() != null ? record.eventAt().toInstant(ZoneOffset.UTC).toEpochMilli() : NO_TIME);
+            payload.putFloat(record.vector().scale());
+            payload.putInt(dimension);
+            payload.put(record.vector().codes());
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload.array());
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + payloadSize + Integer.BYTES);
+        buffer.putInt(payloadSize).put(payload.array()).putInt((int) crc.getValue());
+        return buffer.flip();
+    }
+
+    // 완전한 레코드가 남아 있지 않거나 CRC 가 맞지 않으면 null (위치는 그대로)
+    private static SegmentRecord readRecord(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < Integer.BYTES) {
+            return null;
+        }
+        int payloadSize = buffer.getInt();
+        if (payloadSize <= 0 || buffer.remaining() < payloadSize + Integer.BYTES) {
+            buffer.position(start);
+            return null;
+        }
+
+        byte[] payload = new byte[payloadSize];
+        buffer.get(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != buffer.getInt()) {
+            buffer.position(start);
+            return null;
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        byte type = in.get();
+        long id = in.getLong();
+        if (type == TYPE_TOMBSTONE) {
+            return SegmentRecord.tombstone(id);
+        }
+
+        long postId = in.getLong();
+        PostStatus status = enumOrNull(PostStatus.class, getString(in));
+        AnimalType animalType = enumOrNull(AnimalType.class, getString(in));
+        String modelVersion = getString(in);
+        double latitude = in.getDouble();
+        double longitude = in.getDouble();
+        boolean hasPerceptualHash = in.get() == 1;
+        long perceptualHash = in.getLong();
+        long embeddedAt = in.getLong();
+        long eventAt = in.getLong();
+        float scale = in.getFloat();
+        byte[] codes = new byte[in.getInt()];
+        in.get(codes);
+
+        return new SegmentRecord(id, postId, status, animalType, modelVersion,
+                Double.isNaN(latitude) ? null : latitude,
+                Double.isNaN(longitude) ? null : longitude,
+                hasPerceptualHash ? perceptualHash : null,
+                embeddedAt >= 0 ? LocalDateTime.ofInstant(Instant.ofEpochMilli(embeddedAt), ZoneOffset.UTC) : null,
+                eventAt != NO_TIME ? LocalDateTime.ofInstant(Instant.ofEpochMilli(eventAt), ZoneOffset.UTC) : null,
+                new Int8Vector(codes, scale));
+    }
+
+    private static byte[] bytesOf(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int stringSize(byte[] value) {
+        return Short.BYTES + (value != null ? value.length : 0);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        buffer.putShort((short) (value != null ? value.length : -1));
+        if (value != null) {
+            buffer.put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static <E extends Enum<E>> E enumOrNull(Class<E> type, String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.patrol.domain.ai.index;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * 코사인 유사도 기반 HNSW(Hierarchical Navigable Small World) 근사 최근접 이웃 인덱스.
+ * 벡터는 삽입 시 정규화한 뒤 int8 로 양자화해 저장하며, 유사도는 int8 내적으로 계산한 근사값이다.
+ * 정확한 점수가 필요하면 상위 후보만 원본 임베딩으로 다시 계산한다.
+ */
+public class HnswIndex {
+    // 필터 통과 결과가 모자랄 때 탐색 폭을 max(ef, k) 의 몇 배까지 넓힐지
+    private static final int MAX_WIDENING = 4;
+
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node entryPoint;
+    private int dimension = -1;
+    private int deletedCount = 0;
+
+    public HnswIndex(int m, int efConstruction) {
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+    }
+
+    public record Result(long id, double similarity) {
+    }
+
+    // truncated: 필터를 통과한 결과가 k 개보다 적은데 탐색 폭 상한 때문에 그래프 전체를 보지 못함
+    public record SearchResult(List<Result> results, boolean truncated) {
+    }
+
+    private static final class Node {
+        final long id;
+        final Int8Vector vector;
+        final List<Node>[] neighbors;
+        boolean deleted;
+
+        @SuppressWarnings("unchecked")
+        Node(long id, Int8Vector vector, int level) {
+            this.id = id;
+            this.vector = vector;
+            this.neighbors = new List[level + 1];
+            for (int i = 0; i <= level; i++) {
+                this.neighbors[i] = new ArrayList<>();
+            }
+        }
+
+        int level() {
+            return neighbors.length - 1;
+        }
+    }
+
+    private record Candidate(Node node, double similarity) {
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(long id) {
+        lock.readLock().lock();
+        try {
+            return nodes.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 저장된 양자화 벡터, 없으면 null
+    public Int8Vector vectorOf(long id) {
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(id);
+            return node != null ? node.vector : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(long id, float[] vector) {
+        Int8Vector quantized = Int8Vector.quantizeNormalized(vector);
+        if (quantized != null) {
+            add(id, quantized);
+        }
+    }
+
+    // 이미 정규화/양자화된 벡터 (세그먼트 파일에서 읽은 항목)
+    public void add(long id, Int8Vector vector) {
+        lock.writeLock().lock();
+        try {
+            insert(id, vector);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(long id, Int8Vector vector) {
+        if (dimension == -1) {
+            dimension = vector.dimension();
+        } else if (dimension != vector.dimension()) {
+            throw new IllegalArgumentException("벡터 차원 불일치: expected=" + dimension + ", actual=" + vector.dimension());
+        }
+
+        removeInternal(id);
+
+        Node node = new Node(id, vector, randomLevel());
+        nodes.put(id, node);
+
+        if (entryPoint == null) {
+            entryPoint = node;
+            return;
+        }
+
+        Node current = entryPoint;
+        for (int level = entryPoint.level(); level > node.level(); level--) {
+            current = greedySearch(vector, current, level);
+        }
+
+        List<Node> entryPoints = List.of(current);
+        for (int level = Math.min(node.level(), entryPoint.level()); level >= 0; level--) {
+            List<Candidate> candidates = searchLayer(vector, entryPoints, efConstruction, level);
+            List<Node> selected = selectNeighbors(candidates, m);
+            node.neighbors[level].addAll(selected);
+
+            int maxConnections = level == 0 ? maxM0 : m;
+            for (Node neighbor : selected) {
+                List<Node> links = neighbor.neighbors[level];
+                links.add(node);
+                if (links.size() > maxConnections) {
+                    shrink(neighbor, links, maxConnections);
+                }
+            }
+            entryPoints = candidates.stream().map(Candidate::node).toList();
+        }
+
+        if (node.level() > entryPoint.level()) {
+            entryPoint = node;
+        }
+
+        if (deletedCount > nodes.size() / 2 + 1000) {
+            compact();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 질의 벡터와 가장 유사한 k개의 항목을 유사도 내림차순으로 반환한다.
+     * 필터를 통과한 결과가 k개보다 적으면 탐색 폭(ef)을 max(ef, k) 의 MAX_WIDENING 배까지 넓혀 다시 탐색하고,
+     * 그래도 모자라면 찾은 만큼만 반환한다.
+     */
+    public List<Result> search(float[] query, int k, int ef, LongPredicate filter) {
+        Int8Vector quantized = Int8Vector.quantizeNormalized(query);
+        if (quantized == null) {
+            return List.of();
+        }
+        return search(quantized, k, ef, filter);
+    }
+
+    public List<Result> search(Int8Vector query, int k, int ef, LongPredicate filter) {
+        return searchFiltered(query, k, ef, filter).results();
+    }
+
+    /**
+     * search 와 같지만, 필터가 너무 좁아 탐색 폭 상한 안에서 k개를 채우지 못했는지도 함께 반환한다.
+     * 호출 측은 이 경우 필터 조건으로 후보를 직접 모으는 쪽이 낫다.
+     */
+    public SearchResult searchFiltered(Int8Vector query, int k, int ef, LongPredicate filter) {
+        if (k <= 0) {
+            return new SearchResult(List.of(), false);
+        }
+
+        lock.readLock().lock();
+        try {
+            if (entryPoint == null || query.dimension() != dimension) {
+                return new SearchResult(List.of(), false);
+            }
+
+            Node current = entryPoint;
+            for (int level = entryPoint.level(); level > 0; level--) {
+                current = greedySearch(query, current, level);
+            }
+
+            int total = nodes.size() + deletedCount;
+            int width = Math.max(ef, k);
+            int maxWidth = Math.min(width * MAX_WIDENING, total);
+            while (true) {
+                List<Result> results = new ArrayList<>(k);
+                for (Candidate candidate : searchLayer(query, List.of(current), width, 0)) {
+                    Node node = candidate.node();
+                    if (!node.deleted && filter.test(node.id)) {
+                        results.add(new Result(node.id, candidate.similarity()));
+                        if (results.size() == k) {
+                            break;
+                        }
+                    }
+                }
+                if (results.size() == k || width >= maxWidth) {
+                    return new SearchResult(results, results.size() < k && width < total);
+                }
+                width = Math.min(width * 2, maxWidth);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(long id) {
+        Node existing = nodes.remove(id);
+        if (existing != null) {
+            existing.deleted = true;
+            deletedCount++;
+        }
+    }
+
+    private void compact() {
+        List<Node> live = new ArrayList<>(nodes.values());
+        nodes.clear();
+        entryPoint = null;
+        deletedCount = 0;
+        for (Node node : live) {
+            insert(node.id, node.vector);
+        }
+    }
+
+    private int randomLevel() {
+        double random = ThreadLocalRandom.current().nextDouble();
+        return (int) Math.floor(-Math.log(1 - random) * levelMultiplier);
+    }
+
+    private Node greedySearch(Int8Vector query, Node start, int level) {
+        Node current = start;
+        double best = query.dot(current.vector);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Node neighbor : current.neighbors[level]) {
+                double similarity = query.dot(neighbor.vector);
+                if (similarity > best) {
+                    best = similarity;
+                    current = neighbor;
+                    changed = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    // 유사도 내림차순으로 정렬된 후보 목록을 반환
+    private List<Candidate> searchLayer(Int8Vector query, List<Node> entryPoints, int ef, int level) {
+        Set<Node> visited = new HashSet<>();
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(
+                Comparator.comparingDouble(Candidate::similarity).reversed());
+        PriorityQueue<Candidate> results = new PriorityQueue<>(
+                Comparator.comparingDouble(Candidate::similarity));
+
+        for (Node entry : entryPoints) {
+            if (visited.add(entry)) {
+                Candidate candidate = new Candidate(entry, query.dot(entry.vector));
+                candidates.add(candidate);
+                results.add(candidate);
+                if (results.size() > ef) {
+                    results.poll();
+                }
+            }
+        }
+
+        while (!candidates.isEmpty()) {
+            Candidate closest = candidates.poll();
+            if (results.size() >= ef && closest.similarity() < results.peek().similarity()) {
+                break;
+            }
+            for (Node neighbor : closest.node().neighbors[level]) {
+                if (!visited.add(neighbor)) {
+                    continue;
+                }
+                double similarity = query.dot(neighbor.vector);
+                if (results.size() < ef || similarity > results.peek().similarity()) {
+                    Candidate candidate = new Candidate(neighbor, similarity);
+                    candidates.add(candidate);
+                    results.add(candidate);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+
+        List<Candidate> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparingDouble(Candidate::similarity).reversed());
+        return sorted;
+    }
+
+    private List<Node> selectNeighbors(List<Candidate> candidates, int count) {
+        List<Node> selected = new ArrayList<>(Math.min(count, candidates.size()));
+        for (Candidate candidate : candidates) {
+            if (selected.size() == count) {
+                break;
+            }
+            selected.add(candidate.node());
+        }
+        return selected;
+    }
+
+    private void shrink(Node owner, List<Node> links, int maxConnections) {
+        List<Candidate> scored = new ArrayList<>(links.size());
+        for (Node link : links) {
+            scored.add(new Candidate(link, owner.vector.dot(link.vector)));
+        }
+        scored.sort(Comparator.comparingDouble(Candidate::similarity).reversed());
+        links.clear();
+        for (int i = 0; i < maxConnections; i++) {
+            links.add(scored.get(i).node());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.patrol.domain.ai.index;
+
+/**
+ * 벡터별 스케일을 갖는 int8 스칼라 양자화 벡터.
+ * 값 = codes[i] * scale, scale = max(|v|) / 127. 512차원 기준 float32(2KB) 대비 약 1/4 크기다.
+ * 내적은 정수로 누적한 뒤 두 스케일을 곱해 근사 유사도를 구한다.
+ */
+public record Int8Vector(byte[] codes, float scale) {
+    private static final int MAX_CODE = 127;
+
+    // 단위 벡터로 정규화한 뒤 양자화, 영벡터/빈 벡터면 null
+    public static Int8Vector quantizeNormalized(float[] vector) {
+        if (vector == null || vector.length == 0) {
+            return null;
+        }
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm == 0) {
+            return null;
+        }
+        float inverse = (float) (1 / Math.sqrt(norm));
+        float[] normalized = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] * inverse;
+        }
+        return quantize(normalized);
+    }
+
+    public static Int8Vector quantize(float[] vector) {
+        float maxAbs = 0f;
+        for (float value : vector) {
+            maxAbs = Math.max(maxAbs, Math.abs(value));
+        }
+        float scale = maxAbs == 0f ? 1f : maxAbs / MAX_CODE;
+
+        byte[] codes = new byte[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            int code = Math.round(vector[i] / scale);
+            codes[i] = (byte) Math.max(-MAX_CODE, Math.min(MAX_CODE, code));
+        }
+        return new Int8Vector(codes, scale);
+    }
+
+    public int dimension() {
+        return codes.length;
+    }
+
+    public double dot(Int8Vector other) {
+        byte[] a = codes;
+        byte[] b = other.codes;
+        int sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return (double) sum * scale * other.scale;
+    }
+
+    public float[] toFloats() {
+        float[] values = new float[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            values[i] = codes[i] * scale;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,147 @@
+package com.patrol.domain.ai.index;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 64비트 지각 해시(dHash)에 대한 다중 인덱스 해시 테이블 (multi-index hashing).
+ * 해시를 maxDistance + 1 개의 대역으로 나눠 대역별로 색인한다.
+ * 해밍 거리가 maxDistance 이하인 두 해시는 비둘기집 원리에 따라 적어도 한 대역이 정확히 같으므로,
+ * 각 대역의 같은 값 버킷만 확인하면 누락 없이 근접 중복을 찾을 수 있다.
+ * 켜진 비트가 너무 적거나 많은 해시는 밋밋한 이미지(단색 배경, 까만 사진 등)에서 나와 서로 다른 이미지끼리도 가까우므로
+ * 색인하지도, 조회하지도 않는다.
+ */
+public class PerceptualHashTable {
+    private static final int HASH_BITS = Long.SIZE;
+    private static final int MIN_INFORMATIVE_BITS = 8;
+
+    private final int maxDistance;
+    private final int[] bandStarts;
+    private final long[] bandMasks;
+    private final Map<Long, Set<Long>>[] bands;
+    private final Map<Long, Long> hashes = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public record Match(long id, int distance) {
+    }
+
+    @SuppressWarnings("unchecked")
+    public PerceptualHashTable(int maxDistance) {
+        if (maxDistance < 0 || maxDistance >= HASH_BITS) {
+            throw new IllegalArgumentException("maxDistance 는 0 이상 63 이하여야 합니다: " + maxDistance);
+        }
+        this.maxDistance = maxDistance;
+
+        int bandCount = maxDistance + 1;
+        this.bandStarts = new int[bandCount];
+        this.bandMasks = new long[bandCount];
+        this.bands = new Map[bandCount];
+        for (int i = 0; i < bandCount; i++) {
+            int start = i * HASH_BITS / bandCount;
+            int end = (i + 1) * HASH_BITS / bandCount;
+            bandStarts[i] = start;
+            bandMasks[i] = (end - start == HASH_BITS) ? -1L : (1L << (end - start)) - 1;
+            bands[i] = new HashMap<>();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return hashes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static boolean isInformative(long hash) {
+        int bits = Long.bitCount(hash);
+        return bits >= MIN_INFORMATIVE_BITS && bits <= HASH_BITS - MIN_INFORMATIVE_BITS;
+    }
+
+    // 정보가 적은 해시면 기존 항목만 지운다
+    public void put(long id, long hash) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            if (!isInformative(hash)) {
+                return;
+            }
+            hashes.put(id, hash);
+            for (int i = 0; i < bands.length; i++) {
+                bands[i].computeIfAbsent(bandOf(hash, i), key -> new HashSet<>()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 해밍 거리가 가장 가까운 항목 (maxDistance 이하, 없거나 정보가 적은 해시면 null).
+     */
+    public Match nearest(long hash) {
+        if (!isInformative(hash)) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            Match best = null;
+            Set<Long> checked = new HashSet<>();
+            for (int i = 0; i < bands.length; i++) {
+                Set<Long> bucket = bands[i].get(bandOf(hash, i));
+                if (bucket == null) {
+                    continue;
+                }
+                for (Long id : bucket) {
+                    if (!checked.add(id)) {
+                        continue;
+                    }
+                    int distance = Long.bitCount(hashes.get(id) ^ hash);
+                    if (distance <= maxDistance && (best == null || distance < best.distance())) {
+                        best = new Match(id, distance);
+                        if (distance == 0) {
+                            return best;
+                        }
+                    }
+                }
+            }
+            return best;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(long id) {
+        Long previous = hashes.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (int i = 0; i < bands.length; i++) {
+            long band = bandOf(previous, i);
+            Set<Long> bucket = bands[i].get(band);
+            if (bucket != null) {
+                bucket.remove(id);
+                if (bucket.isEmpty()) {
+                    bands[i].remove(band);
+                }
+            }
+        }
+    }
+
+    private long bandOf(long hash, int band) {
+        return (hash >>> bandStarts[band]) & bandMasks[band];
+    }
+}
@@ -0,0 +1,23 @@
+package com.patrol.domain.ai.index;
+
+import com.patrol.domain.animal.enums.AnimalType;
+import com.patrol.domain.lostFoundPost.entity.PostStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * 임베딩 세그먼트 파일의 레코드 하나 (인덱스 항목과 같은 정보).
+ * vector 가 null 이면 삭제 표시(tombstone)다.
+ */
+public record SegmentRecord(Long id, Long postId, PostStatus status, AnimalType animalType, String modelVersion,
+                            Double latitude, Double longitude, Long perceptualHash, LocalDateTime embeddedAt,
+                            LocalDateTime eventAt, Int8Vector vector) {
+
+    public static SegmentRecord tombstone(Long id) {
+        return new SegmentRecord(id, null, null, null, null, null, null, null, null, null, null);
+    }
+
+    public boolean isTombstone() {
+        return vector == null;
+    }
+}
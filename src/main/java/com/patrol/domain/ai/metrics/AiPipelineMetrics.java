@@ -0,0 +1,104 @@
+package com.patrol.domain.ai.metrics;
+
+import com.patrol.domain.animal.enums.AnimalType;
+import com.patrol.domain.lostFoundPost.entity.PostStatus;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * AI 매칭 파이프라인 단계별 지연 시간 메트릭.
+ * ai.pipeline.stage{stage, status, animal_type} 타이머로 기록하며 p50/p90/p99 와 히스토그램을 함께 노출한다.
+ * 여러 상태가 섞인 배치 단위 작업은 status/animal_type 을 ALL 로 기록한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class AiPipelineMetrics {
+    private static final String ALL = "ALL";
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+
+    public enum Stage {
+        KAFKA_LAG,        // 이벤트 생성 ~ 컨슈머 수신
+        DOWNLOAD,         // 이미지 다운로드 (URL/콘텐츠 타입 검증 포함)
+        PREPROCESS,       // 디코딩/리사이즈
+        EXTRACTION,       // AI 서버 임베딩 추출 (재시도 포함)
+        DB_SAVE,          // 임베딩 일괄 저장
+        CANDIDATE_QUERY,  // 유사 후보 조회 (인덱스 또는 DB)
+        SCORING,          // 후보 전체 유사도 계산
+        SCORING_PER_CANDIDATE,
+        COMMENT_LINKING   // 매칭 결과 댓글 등록
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void stop(Timer.Sample sample, Stage stage, PostStatus status, AnimalType animalType) {
+        sample.stop(timer(stage, tagOf(status), tagOf(animalType)));
+    }
+
+    public void stopForBatch(Timer.Sample sample, Stage stage) {
+        sample.stop(timer(stage, ALL, ALL));
+    }
+
+    public void record(Stage stage, Duration duration, PostStatus status, AnimalType animalType) {
+        timer(stage, tagOf(status), tagOf(animalType)).record(duration);
+    }
+
+    public <T> T time(Stage stage, PostStatus status, AnimalType animalType, Supplier<T> task) {
+        return timer(stage, tagOf(status), tagOf(animalType)).record(task);
+    }
+
+    public void time(Stage stage, PostStatus status, AnimalType animalType, Runnable task) {
+        timer(stage, tagOf(status), tagOf(animalType)).record(task);
+    }
+
+    // 한 번의 계산에 포함된 후보 수와 후보당 평균 소요 시간을 함께 기록
+    public void recordScoring(Duration total, int candidateCount, PostStatus status, AnimalType animalType) {
+        record(Stage.SCORING, total, status, animalType);
+        if (candidateCount > 0) {
+            record(Stage.SCORING_PER_CANDIDATE, total.dividedBy(candidateCount), status, animalType);
+        }
+        DistributionSummary.builder("ai.pipeline.candidates")
+                .description("유사도 계산 대상 후보 수")
+                .tag("status", tagOf(status))
+                .tag("animal_type", tagOf(animalType))
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry)
+                .record(candidateCount);
+    }
+
+    public void recordBatch(int recordCount, long messageBytes) {
+        DistributionSummary.builder("ai.pipeline.batch.records")
+                .description("image-events 배치당 메시지 수")
+                .register(meterRegistry)
+                .record(recordCount);
+        DistributionSummary.builder("ai.pipeline.batch.bytes")
+                .description("image-events 배치당 메시지 크기")
+                .baseUnit("bytes")
+                .register(meterRegistry)
+                .record(messageBytes);
+    }
+
+    private Timer timer(Stage stage, String status, String animalType) {
+        return Timer.builder("ai.pipeline.stage")
+                .description("AI 매칭 파이프라인 단계별 소요 시간")
+                .tag("stage", stage.name().toLowerCase())
+                .tag("status", status)
+                .tag("animal_type", animalType)
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static String tagOf(Enum<?> value) {
+        return value != null ? value.name() : UNKNOWN;
+    }
+}
@@ -0,0 +1,78 @@
+package com.patrol.domain.ai.preprocess;
+
+/**
+ * JPEG APP1(Exif) 세그먼트에서 Orientation(0x0112) 태그만 읽는다.
+ * JPEG 가 아니거나 태그가 없으면 1(정방향)을 반환한다.
+ */
+final class ExifOrientation {
+    private static final int ORIENTATION_TAG = 0x0112;
+    private static final int MARKER_APP1 = 0xE1;
+    private static final int MARKER_SOS = 0xDA;
+    private static final int MARKER_EOI = 0xD9;
+
+    private ExifOrientation() {
+    }
+
+    static int read(byte[] jpeg) {
+        try {
+            if (jpeg.length < 4 || u8(jpeg, 0) != 0xFF || u8(jpeg, 1) != 0xD8) {
+                return 1;
+            }
+
+            int pos = 2;
+            while (pos + 4 <= jpeg.length && u8(jpeg, pos) == 0xFF) {
+                int marker = u8(jpeg, pos + 1);
+                if (marker == MARKER_SOS || marker == MARKER_EOI) {
+                    break;
+                }
+                int segmentLength = (u8(jpeg, pos + 2) << 8) | u8(jpeg, pos + 3);
+                if (marker == MARKER_APP1 && isExifHeader(jpeg, pos + 4)) {
+                    return readTiff(jpeg, pos + 10);
+                }
+                pos += 2 + segmentLength;
+            }
+        } catch (IndexOutOfBoundsException ignored) {
+            // 잘린 EXIF 는 무시
+        }
+        return 1;
+    }
+
+    private static int readTiff(byte[] data, int tiffStart) {
+        boolean littleEndian = u8(data, tiffStart) == 'I' && u8(data, tiffStart + 1) == 'I';
+        if (!littleEndian && !(u8(data, tiffStart) == 'M' && u8(data, tiffStart + 1) == 'M')) {
+            return 1;
+        }
+
+        int ifd = tiffStart + (int) u32(data, tiffStart + 4, littleEndian);
+        int entryCount = u16(data, ifd, littleEndian);
+        for (int i = 0; i < entryCount; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (u16(data, entry, littleEndian) == ORIENTATION_TAG) {
+                int orientation = u16(data, entry + 8, littleEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static boolean isExifHeader(byte[] data, int pos) {
+        return u8(data, pos) == 'E' && u8(data, pos + 1) == 'x' && u8(data, pos + 2) == 'i'
+                && u8(data, pos + 3) == 'f' && u8(data, pos + 4) == 0 && u8(data, pos + 5) == 0;
+    }
+
+    private static int u8(byte[] data, int pos) {
+        return data[pos] & 0xFF;
+    }
+
+    private static int u16(byte[] data, int pos, boolean littleEndian) {
+        return littleEndian
+                ? u8(data, pos) | (u8(data, pos + 1) << 8)
+                : (u8(data, pos) << 8) | u8(data, pos + 1);
+    }
+
+    private static long u32(byte[] data, int pos, boolean littleEndian) {
+        return littleEndian
+                ? (u16(data, pos, true) | ((long) u16(data, pos + 2, true) << 16))
+                : (((long) u16(data, pos, false) << 16) | u16(data, pos + 2, false));
+    }
+}
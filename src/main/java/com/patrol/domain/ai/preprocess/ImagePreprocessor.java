@@ -0,0 +1,204 @@
+package com.patrol.domain.ai.preprocess;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * AI 서버로 보내기 전 이미지 전처리.
+ * 한 번만 디코딩하고(큰 이미지는 서브샘플링), EXIF 방향을 적용한 뒤 RGB 로 변환하고
+ * 긴 변을 maxEdge 이하로 줄여 JPEG 로 다시 인코딩한다.
+ * 디코딩/리사이즈는 CPU 를 많이 쓰므로 크기가 제한된 전용 풀에서 실행한다.
+ */
+@Slf4j
+@Component
+public class ImagePreprocessor {
+    private final boolean enabled;
+    private final int maxEdge;
+    private final float jpegQuality;
+    private final ExecutorService cpuPool;
+
+    public ImagePreprocessor(@Value("${app.embedding.preprocess.enabled:true}") boolean enabled,
+                             @Value("${app.embedding.preprocess.max-edge:448}") int maxEdge,
+                             @Value("${app.embedding.preprocess.jpeg-quality:0.9}") float jpegQuality,
+                             @Value("${app.embedding.preprocess.threads:0}") int threads) {
+        this.enabled = enabled;
+        this.maxEdge = maxEdge;
+        this.jpegQuality = jpegQuality;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.cpuPool = Executors.newFixedThreadPool(poolSize, Thread.ofPlatform()
+                .name("image-preprocess-", 0)
+                .daemon(true)
+                .factory());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cpuPool.shutdown();
+    }
+
+    /**
+     * 전처리된 JPEG 바이트를 반환한다. 디코딩할 수 없거나 이미 충분히 작은 JPEG 이면 원본을 그대로 반환한다.
+     */
+    public byte[] preprocess(byte[] original) {
+        if (!enabled) {
+            return original;
+        }
+        try {
+            return cpuPool.submit(() -> resize(original)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return original;
+        } catch (ExecutionException e) {
+            log.warn("⚠️ 이미지 전처리 실패, 원본 사용: {}", e.getCause().getMessage());
+            return original;
+        }
+    }
+
+    private byte[] resize(byte[] original) throws IOException {
+        long startTime = System.currentTimeMillis();
+        int orientation = ExifOrientation.read(original);
+
+        BufferedImage decoded;
+        String format;
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(original))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                log.warn("⚠️ 지원하지 않는 이미지 형식, 원본 사용");
+                return original;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                format = reader.getFormatName();
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+
+                if (Math.max(width, height) <= maxEdge && orientation == 1 && isJpeg(format)) {
+                    return original;
+                }
+
+                // 목표 크기의 2배 이상은 유지하도록 디코딩 단계에서 서브샘플링
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.max(width, height) / (maxEdge * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                decoded = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        BufferedImage scaled = scaleToRgb(decoded);
+        BufferedImage oriented = applyOrientation(scaled, orientation);
+        byte[] encoded = encodeJpeg(oriented);
+
+        log.info("🖼️ 이미지 전처리 완료: {} {}x{} ({} bytes) -> {}x{} ({} bytes), {}ms",
+                format, decoded.getWidth(), decoded.getHeight(), original.length,
+                oriented.getWidth(), oriented.getHeight(), encoded.length,
+                System.currentTimeMillis() - startTime);
+        return encoded;
+    }
+
+    // 긴 변이 maxEdge 가 될 때까지 절반씩 줄여 품질을 유지하고, 투명 영역은 흰색으로 채운다
+    private BufferedImage scaleToRgb(BufferedImage source) {
+        double scale = Math.min(1.0, (double) maxEdge / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            current = draw(current, width, height);
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = target.createGraphics();
+        try {
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g2d.setColor(Color.WHITE);
+            g2d.fillRect(0, 0, width, height);
+            g2d.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g2d.dispose();
+        }
+        return target;
+    }
+
+    // EXIF Orientation(1~8)에 맞게 회전/반전
+    private static BufferedImage applyOrientation(BufferedImage image, int orientation) {
+        if (orientation <= 1 || orientation > 8) {
+            return image;
+        }
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean swap = orientation >= 5;
+        // x' = m00 * x + m01 * y + m02, y' = m10 * x + m11 * y + m12
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, width, 0);        // 좌우 반전
+            case 3 -> new AffineTransform(-1, 0, 0, -1, width, height);  // 180도 회전
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, height);       // 상하 반전
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);             // 대각선 반전
+            case 6 -> new AffineTransform(0, 1, -1, 0, height, 0);       // 시계 방향 90도
+            case 7 -> new AffineTransform(0, -1, -1, 0, height, width);  // 역대각선 반전
+            default -> new AffineTransform(0, -1, 1, 0, 0, width);       // 8: 반시계 방향 90도
+        };
+
+        BufferedImage target = new BufferedImage(swap ? height : width, swap ? width : height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = target.createGraphics();
+        try {
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            g2d.drawImage(image, transform, null);
+        } finally {
+            g2d.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    private boolean isJpeg(String format) {
+        return "jpeg".equalsIgnoreCase(format) || "jpg".equalsIgnoreCase(format);
+    }
+}
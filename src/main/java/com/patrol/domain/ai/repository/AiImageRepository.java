@@ -1,28 +1,145 @@
 package com.patrol.domain.ai.repository;
 
 import com.patrol.domain.ai.entity.AiImage;
+import com.patrol.domain.animal.enums.AnimalType;
+import com.patrol.domain.lostFoundPost.entity.PostStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface AiImageRepository extends JpaRepository<AiImage, Long> {
 
+    // 셀/상태/동물 종류/모델 버전/분실·발견 시각으로 후보를 좁힌 뒤 정확한 거리 계산은 호출 측에서 수행
+    // 시각은 LostFoundPost.getEventAt() 과 같은 순서(findAt, lostAt, createdAt)로 고르며, from/to 가 null 이면 제한하지 않는다
     @Query("""
     SELECT i FROM AiImage i
-    JOIN i.lostFoundPost p
-    WHERE (i.embedding IS NOT NULL AND i.features IS NOT NULL) AND
-        (6371 * acos(cos(radians(:lat)) * cos(radians(p.latitude))
-        * cos(radians(p.longitude) - radians(:lng))
-        + sin(radians(:lat)) * sin(radians(p.latitude)))) <= :radius
-""")
-    List<AiImage> findNearbyAiImages (
-            @Param("lat") double latitude,
-            @Param("lng") double longitude,
-            @Param("radius") double radius);
-
-    @Query("SELECT COUNT(a) > 0 FROM AiImage a WHERE (a.embedding IS NOT NULL OR a.features IS NOT NULL) AND a.id = :id")
+    JOIN FETCH i.lostFoundPost p
+    WHERE p.geoCell IN :cells AND p.status = :status
+        AND (:animalType IS NULL OR p.animalType IS NULL OR p.animalType = :animalType)
+        AND i.modelVersion = :modelVersion
+        AND (i.embeddingVector IS NOT NULL OR i.embedding IS NOT NULL)
+        AND (:from IS NULL
+            OR p.findAt BETWEEN :from AND :to
+            OR (p.findAt IS NULL AND p.lostAt BETWEEN :from AND :to)
+            OR (p.findAt IS NULL AND p.lostAt IS NULL AND p.createdAt BETWEEN :from AND :to))
+""")
+    List<AiImage> findEmbeddedInCells(
+            @Param("cells") Collection<String> cells,
+            @Param("status") PostStatus status,
+            @Param("animalType") AnimalType animalType,
+            @Param("modelVersion") String modelVersion,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    List<AiImage> findAllByLostFoundPostId(Long lostFoundPostId);
+
+    // 임베딩 저장과 겹쳐도 다른 컬럼을 덮어쓰지 않도록 상태 컬럼만 갱신
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE AiImage i SET i.status = :status WHERE i.lostFoundPost.id = :postId")
+    int updateStatusByLostFoundPostId(@Param("postId") Long postId, @Param("status") PostStatus status);
+
+    @Query("""
+    SELECT i FROM AiImage i
+    JOIN FETCH i.lostFoundPost p
+    WHERE p.id IN :postIds AND i.modelVersion = :modelVersion
+        AND (i.embeddingVector IS NOT NULL OR i.embedding IS NOT NULL)
+""")
+    List<AiImage> findEmbeddedByPostIds(
+            @Param("postIds") Collection<Long> postIds,
+            @Param("modelVersion") String modelVersion);
+
+    // 재순위 계산용 원본 임베딩 (게시글을 조인하지 않는다)
+    @Query("""
+    SELECT new com.patrol.domain.ai.repository.EmbeddingVectorRef(i.id, i.embeddingVector, i.embedding)
+    FROM AiImage i
+    WHERE i.id IN :ids
+""")
+    List<EmbeddingVectorRef> findEmbeddingVectorsByIds(@Param("ids") Collection<Long> ids);
+
+    // 현재 모델 버전이 아닌 임베딩 (재추출 대상)
+    @Query("""
+    SELECT new com.patrol.domain.ai.repository.ExtractionTarget(i.id, i.path, i.contentHash, i.status, i.animalType)
+    FROM AiImage i
+    WHERE i.id > :lastId AND (i.embeddingVector IS NOT NULL OR i.embedding IS NOT NULL)
+        AND (i.modelVersion IS NULL OR i.modelVersion <> :modelVersion)
+    ORDER BY i.id ASC
+""")
+    List<ExtractionTarget> findStaleEmbeddingsAfter(
+            @Param("modelVersion") String modelVersion,
+            @Param("lastId") Long lastId,
+            Pageable pageable);
+
+    @Query("""
+    SELECT i FROM AiImage i
+    JOIN FETCH i.lostFoundPost p
+    WHERE i.id > :lastId AND (i.embeddingVector IS NOT NULL OR i.embedding IS NOT NULL)
+    ORDER BY i.id ASC
+""")
+    List<AiImage> findEmbeddedAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    // 인덱스 스냅샷 이후 수정된 게시글의 임베딩된 이미지 (ID 키셋 페이지네이션)
+    @Query("""
+    SELECT i FROM AiImage i
+    JOIN FETCH i.lostFoundPost p
+    WHERE p.modifiedAt > :since AND i.id > :lastId AND (i.embeddingVector IS NOT NULL OR i.embedding IS NOT NULL)
+    ORDER BY i.id ASC
+""")
+    List<AiImage> findEmbeddedOfPostsModifiedAfter(
+            @Param("since") LocalDateTime since,
+            @Param("lastId") Long lastId,
+            Pageable pageable);
+
+    // 주어진 ID 중 아직 존재하는 것 (인덱스 스냅샷 검증용)
+    @Query("SELECT i.id FROM AiImage i WHERE i.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // (embeddedAt, id) 키셋 페이지네이션으로 lastAt 이후 임베딩된 이미지 (인덱스 스냅샷 이후 변경분)
+    @Query("""
+    SELECT i FROM AiImage i
+    JOIN FETCH i.lostFoundPost p
+    WHERE (i.embeddedAt > :lastAt OR (i.embeddedAt = :lastAt AND i.id > :lastId))
+        AND (i.embeddingVector IS NOT NULL OR i.embedding IS NOT NULL)
+    ORDER BY i.embeddedAt ASC, i.id ASC
+""")
+    List<AiImage> findEmbeddedAfterTime(
+            @Param("lastAt") LocalDateTime lastAt,
+            @Param("lastId") Long lastId,
+            Pageable pageable);
+
+    // (embeddedAt, id) 키셋 페이지네이션, before 이전에 임베딩된 이미지만
+    @Query("""
+    SELECT new com.patrol.domain.ai.repository.EmbeddedImageRef(i.id, i.lostFoundPost.id, i.status, i.embeddedAt)
+    FROM AiImage i
+    WHERE (i.embeddedAt > :lastAt OR (i.embeddedAt = :lastAt AND i.id > :lastId))
+        AND i.embeddedAt <= :before AND i.status IN :statuses
+    ORDER BY i.embeddedAt ASC, i.id ASC
+""")
+    List<EmbeddedImageRef> findEmbeddedSince(
+            @Param("lastAt") LocalDateTime lastAt,
+            @Param("lastId") Long lastId,
+            @Param("before") LocalDateTime before,
+            @Param("statuses") Collection<PostStatus> statuses,
+            Pageable pageable);
+
+    @Query("""
+    SELECT i FROM AiImage i
+    WHERE i.id > :lastId AND i.embeddingVector IS NULL AND i.featuresVector IS NULL
+        AND (i.embedding IS NOT NULL OR i.features IS NOT NULL)
+    ORDER BY i.id ASC
+""")
+    List<AiImage> findLegacyEmbeddingsAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    @Query("""
+    SELECT COUNT(a) > 0 FROM AiImage a
+    WHERE (a.embeddingVector IS NOT NULL OR a.featuresVector IS NOT NULL
+        OR a.embedding IS NOT NULL OR a.features IS NOT NULL) AND a.id = :id
+""")
     boolean existsByEmbeddingIsNotNullOrFeaturesIsNotNullAndId(@Param("id") Long id);
 
 }
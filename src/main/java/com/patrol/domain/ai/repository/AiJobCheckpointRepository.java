@@ -0,0 +1,7 @@
+package com.patrol.domain.ai.repository;
+
+import com.patrol.domain.ai.entity.AiJobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface AiJobCheckpointRepository extends JpaRepository<AiJobCheckpoint, String> {
+}
@@ -0,0 +1,34 @@
+package com.patrol.domain.ai.repository;
+
+import com.patrol.domain.ai.entity.AiMatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface AiMatchRepository extends JpaRepository<AiMatch, Long> {
+
+    // postId 의 이미지와 매칭 기록이 있는 게시글 중 postIds 에 포함된 것
+    @Query("""
+    SELECT DISTINCT CASE WHEN a.lostFoundPost.id = :postId THEN b.lostFoundPost.id ELSE a.lostFoundPost.id END
+    FROM AiMatch m, AiImage a, AiImage b
+    WHERE a.id = m.imageAId AND b.id = m.imageBId AND m.modelVersion = :modelVersion
+        AND ((a.lostFoundPost.id = :postId AND b.lostFoundPost.id IN :postIds)
+            OR (b.lostFoundPost.id = :postId AND a.lostFoundPost.id IN :postIds))
+""")
+    List<Long> findLinkedPostIds(
+            @Param("postId") Long postId,
+            @Param("postIds") Collection<Long> postIds,
+            @Param("modelVersion") String modelVersion);
+
+    // 모델 버전과 무관하게 두 게시글의 이미지 사이에 매칭 기록이 있는지
+    @Query("""
+    SELECT COUNT(m) > 0 FROM AiMatch m, AiImage a, AiImage b
+    WHERE a.id = m.imageAId AND b.id = m.imageBId
+        AND ((a.lostFoundPost.id = :postId AND b.lostFoundPost.id = :otherPostId)
+            OR (a.lostFoundPost.id = :otherPostId AND b.lostFoundPost.id = :postId))
+""")
+    boolean existsBetweenPosts(@Param("postId") Long postId, @Param("otherPostId") Long otherPostId);
+}
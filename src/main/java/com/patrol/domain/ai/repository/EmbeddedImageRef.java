@@ -0,0 +1,9 @@
+package com.patrol.domain.ai.repository;
+
+import com.patrol.domain.lostFoundPost.entity.PostStatus;
+
+import java.time.LocalDateTime;
+
+// 재매칭 스윕에서 사용하는 AiImage 요약 (임베딩/게시글을 로딩하지 않음)
+public record EmbeddedImageRef(Long id, Long postId, PostStatus status, LocalDateTime embeddedAt) {
+}
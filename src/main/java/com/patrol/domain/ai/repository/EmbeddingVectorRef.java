@@ -0,0 +1,5 @@
+package com.patrol.domain.ai.repository;
+
+// 원본 임베딩만 담은 AiImage 요약 (게시글/특징 벡터를 로딩하지 않음), embedding 은 바이너리 전환 이전의 JSON
+public record EmbeddingVectorRef(Long id, byte[] embeddingVector, String embedding) {
+}
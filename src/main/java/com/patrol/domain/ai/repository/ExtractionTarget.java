@@ -0,0 +1,8 @@
+package com.patrol.domain.ai.repository;
+
+import com.patrol.domain.animal.enums.AnimalType;
+import com.patrol.domain.lostFoundPost.entity.PostStatus;
+
+// 임베딩 재추출에 필요한 AiImage 필드 (기존 임베딩/게시글을 로딩하지 않음)
+public record ExtractionTarget(Long id, String path, String contentHash, PostStatus status, AnimalType animalType) {
+}
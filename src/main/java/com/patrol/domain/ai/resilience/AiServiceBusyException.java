@@ -0,0 +1,8 @@
+package com.patrol.domain.ai.resilience;
+
+// 동시 호출 상한(벌크헤드)이 대기 시간 안에 비지 않아 호출하지 못한 경우 (AI 서버 장애가 아니라 이 노드의 과부하)
+public class AiServiceBusyException extends RuntimeException {
+    public AiServiceBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,175 @@
+package com.patrol.domain.ai.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRetryMetrics;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * AI 서버 호출 보호 계층: 재시도(Retry) -> 서킷브레이커(CircuitBreaker) -> 벌크헤드(Bulkhead) 순서로 감싼다.
+ * - 재시도는 지수 백오프로 스케줄러에 예약되므로 대기하는 동안 스레드를 점유하지 않는다.
+ * - AI 서버 장애로 실패율이 임계값을 넘으면 서킷이 열려 호출 없이 즉시 실패한다.
+ * - 동시에 진행 가능한 호출 수를 제한하고, 초과 요청은 백오프 후 재시도한다.
+ * 각 구성요소의 상태/호출 수는 resilience4j_* 메트릭으로 노출된다.
+ * 벌크헤드 허용 수는 image-events 추출과 재추출의 max-in-flight 합 이상으로 두어 평상시 부하로는 차지 않게 하고,
+ * 그래도 가득 차면 호출 스레드(가상 스레드)가 maxWait 동안 기다린다. 대기 후에도 못 들어가면 장애가 아닌
+ * AiServiceBusyException 으로 구분하며, 서킷브레이커 실패율에도 넣지 않는다.
+ */
+@Slf4j
+@Component
+public class AiServiceResilience {
+    private static final String NAME = "aiService";
+
+    private final Retry retry;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("ai-retry-scheduler").daemon(true).factory());
+    private final ExecutorService callExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public AiServiceResilience(
+            MeterRegistry meterRegistry,
+            @Value("${app.ai.resilience.retry.max-attempts:3}") int maxAttempts,
+            @Value("${app.ai.resilience.retry.initial-interval-ms:500}") long initialIntervalMs,
+            @Value("${app.ai.resilience.retry.multiplier:2.0}") double multiplier,
+            @Value("${app.ai.resilience.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${app.ai.resilience.circuit-breaker.sliding-window-size:20}") int slidingWindowSize,
+            @Value("${app.ai.resilience.circuit-breaker.wait-duration-in-open-state-seconds:30}") long openStateSeconds,
+            @Value("${app.ai.resilience.bulkhead.max-concurrent-calls:16}") int maxConcurrentCalls,
+            @Value("${app.ai.resilience.bulkhead.max-wait-ms:30000}") long maxWaitMs,
+            @Value("${app.embedding.extraction.max-in-flight:8}") int extractionInFlight,
+            @Value("${app.embedding.reembed.max-in-flight:4}") int reembedInFlight) {
+
+        RetryRegistry retryRegistry = RetryRegistry.of(RetryConfig.custom()
+                .maxAttempts(maxAttempts)
+                .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(initialIntervalMs, multiplier))
+                .retryOnException(e -> isTransient(unwrap(e)) || unwrap(e) instanceof BulkheadFullException)
+                .build());
+
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(Math.min(slidingWindowSize, 10))
+                .waitDurationInOpenState(Duration.ofSeconds(openStateSeconds))
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .recordException(e -> isTransient(unwrap(e)))
+                .ignoreExceptions(BulkheadFullException.class)
+                .build());
+
+        BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ofMillis(maxWaitMs))
+                .build());
+        if (maxConcurrentCalls < extractionInFlight + reembedInFlight) {
+            log.warn("⚠️ AI 서버 동시 호출 상한({})이 추출({}) + 재추출({}) 동시 요청 수보다 작아 평상시에도 대기가 생김",
+                    maxConcurrentCalls, extractionInFlight, reembedInFlight);
+        }
+
+        this.retry = retryRegistry.retry(NAME);
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(NAME);
+        this.bulkhead = bulkheadRegistry.bulkhead(NAME);
+
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("⚡ AI 서버 서킷브레이커 상태 변경: {}", event.getStateTransition()));
+        retry.getEventPublisher().onRetry(event ->
+                log.info("⏱️ AI 서버 호출 재시도 예약 ({}회차, {}ms 후): {}", event.getNumberOfRetryAttempts(),
+                        event.getWaitInterval().toMillis(), unwrap(event.getLastThrowable()).getMessage()));
+
+        TaggedRetryMetrics.ofRetryRegistry(retryRegistry).bindTo(meterRegistry);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdown();
+        callExecutor.shutdown();
+    }
+
+    // 벌크헤드 대기는 재시도 스케줄러가 아닌 호출용 가상 스레드에서 한다
+    public <T> CompletableFuture<T> executeAsync(Supplier<T> call) {
+        Supplier<CompletionStage<T>> attempt = () -> {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            callExecutor.execute(() -> {
+                try {
+                    future.complete(bulkhead.executeSupplier(call));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+            return future;
+        };
+
+        return Retry.decorateCompletionStage(retry, retryScheduler,
+                        CircuitBreaker.decorateCompletionStage(circuitBreaker, attempt))
+                .get()
+                .toCompletableFuture();
+    }
+
+    /**
+     * 호출 결과를 기다려 반환한다. 재시도 대기 동안에는 호출 스레드가 아닌 스케줄러가 다음 시도를 예약한다.
+     * AI 서버 장애(서킷 열림, 재시도 소진)는 AiServiceUnavailableException, 동시 호출 상한 초과는 AiServiceBusyException 으로 변환한다.
+     */
+    public <T> T execute(Supplier<T> call) {
+        try {
+            return executeAsync(call).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AiServiceUnavailableException("AI 서버 호출 대기 중 인터럽트 발생", e);
+        } catch (ExecutionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof BulkheadFullException) {
+                throw new AiServiceBusyException("AI 서버 동시 호출 상한 초과: " + cause.getMessage(), cause);
+            }
+            if (cause instanceof CallNotPermittedException || isTransient(cause)) {
+                throw new AiServiceUnavailableException("AI 서버 사용 불가: " + cause.getMessage(), cause);
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    // 연결 실패/타임아웃/5xx 만 일시적 장애로 보고, 4xx 는 요청 자체의 문제로 본다
+    private static boolean isTransient(Throwable e) {
+        return e instanceof ResourceAccessException || e instanceof HttpServerErrorException;
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        Throwable current = e;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+}
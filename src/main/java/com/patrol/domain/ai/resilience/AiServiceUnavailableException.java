@@ -0,0 +1,8 @@
+package com.patrol.domain.ai.resilience;
+
+// AI 서버가 응답하지 않거나 서킷이 열려 있어 호출하지 못한 경우 (나중에 다시 시도해야 함)
+public class AiServiceUnavailableException extends RuntimeException {
+    public AiServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,8 @@
+package com.patrol.domain.ai.resilience;
+
+// 이미지 저장소가 응답하지 않거나 5xx 로 실패해 원본 이미지를 내려받지 못한 경우 (나중에 다시 시도해야 함)
+public class ImageStorageUnavailableException extends RuntimeException {
+    public ImageStorageUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
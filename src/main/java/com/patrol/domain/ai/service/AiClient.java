@@ -2,27 +2,37 @@ package com.patrol.domain.ai.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patrol.domain.ai.metrics.AiPipelineMetrics;
+import com.patrol.domain.ai.metrics.AiPipelineMetrics.Stage;
+import com.patrol.domain.ai.preprocess.ImagePreprocessor;
+import com.patrol.domain.ai.resilience.AiServiceResilience;
+import com.patrol.domain.ai.resilience.AiServiceUnavailableException;
+import com.patrol.domain.ai.resilience.ImageStorageUnavailableException;
+import com.patrol.domain.animal.enums.AnimalType;
+import com.patrol.domain.lostFoundPost.entity.PostStatus;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.*;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
-import javax.imageio.ImageIO;
-import java.awt.*;
-import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URI;
 import java.util.*;
-import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Future;
 
 @Service
 @Slf4j
@@ -30,215 +40,288 @@ import java.util.concurrent.TimeUnit;
 public class AiClient {
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final ImagePreprocessor imagePreprocessor;
+    private final AiServiceResilience aiServiceResilience;
+    private final AiPipelineMetrics pipelineMetrics;
 
     @Value("${ai.service-url}")
     private String aiServiceUrl;
-    private static final int MAX_RETRY = 3;
-    private static final long RETRY_DELAY_MS = 2000;
+
+    // bytes: 이미지를 한 번 내려받아 multipart 로 전달, url: AI 서버가 직접 다운로드
+    @Value("${app.embedding.extraction.mode:bytes}")
+    private String extractionMode;
+
+    // AI 서버가 모델 버전을 알려주지 않을 때 사용할 버전
+    @Value("${app.embedding.model-version:v1}")
+    private String defaultModelVersion;
+
+    private static final Map<String, String> EMPTY_RESULT = Map.of("embedding", "[]", "features", "[]");
+
     private final Executor asyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
-    public CompletableFuture<Map<String, String>> extractEmbeddingAsync(String imageUrl) {
+    private record PreparedImage(byte[] bytes, String fileName) {
+    }
+
+    public CompletableFuture<Map<String, String>> extractEmbeddingAsync(String imageUrl, PostStatus status, AnimalType animalType) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                return extractEmbeddingAndFeaturesFromUrl(imageUrl);
+                return extractEmbeddingAndFeaturesFromUrl(imageUrl, status, animalType);
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
         }, asyncExecutor);
     }
 
-    public Map<String, String> extractEmbeddingAndFeaturesFromUrl(String imageUrl) throws IOException {
+    // status/animalType 은 단계별 메트릭 태그로만 사용
+    public Map<String, String> extractEmbeddingAndFeaturesFromUrl(String imageUrl, PostStatus status, AnimalType animalType) throws IOException {
         log.info("🔍 AI 서비스 임베딩 추출 시작: {}", imageUrl);
 
-        if (!isValidImageUrl(imageUrl)) {
-            log.error("❌ 유효하지 않은 이미지 URL: {}", imageUrl);
-            return Map.of("embedding", "[]", "features", "[]");
+        if ("url".equalsIgnoreCase(extractionMode)) {
+            return sendUrlRequest(imageUrl, status, animalType);
         }
 
-        String processedUrl = preprocessAndCreateTempUrl(imageUrl);
-        if (processedUrl != null) {
-            log.info("🔄 전처리된 이미지 URL 사용: {}", processedUrl);
-            imageUrl = processedUrl;
+        PreparedImage image = prepareImage(imageUrl, status, animalType);
+        if (image == null) {
+            return EMPTY_RESULT;
         }
-
-        return sendUrlRequestWithRetry(imageUrl, 0);
+        return extractEmbeddingAndFeatures(image.bytes(), image.fileName(), status, animalType);
     }
 
-    private boolean isValidImageUrl(String imageUrl) {
-        try {
-            URL url = new URL(imageUrl);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("HEAD");
-            connection.setConnectTimeout(5000);
-            connection.setReadTimeout(5000);
-
-            int responseCode = connection.getResponseCode();
-            String contentType = connection.getContentType();
+    /**
+     * 한 게시글의 이미지들을 한 번의 요청으로 추출한다.
+     * 결과는 imageUrls 와 같은 순서이며, 다운로드나 추출에 실패한 이미지는 빈 결과다.
+     * 저장소의 일시적 장애로 내려받지 못하면 ImageStorageUnavailableException 을 던져 나중에 다시 시도하게 한다.
+     */
+    public List<Map<String, String>> extractEmbeddingsFromUrls(List<String> imageUrls, PostStatus status,
+                                                               AnimalType animalType) throws IOException {
+        if ("url".equalsIgnoreCase(extractionMode) || imageUrls.size() == 1) {
+            List<Map<String, String>> results = new ArrayList<>(imageUrls.size());
+            for (String imageUrl : imageUrls) {
+                results.add(extractEmbeddingAndFeaturesFromUrl(imageUrl, status, animalType));
+            }
+            return results;
+        }
 
-            connection.disconnect();
+        log.info("🔍 AI 서비스 임베딩 일괄 추출 시작: {}개", imageUrls.size());
+        List<PreparedImage> images = prepareImages(imageUrls, status, animalType);
 
-            boolean isValid = (responseCode == HttpURLConnection.HTTP_OK &&
-                    contentType != null &&
-                    contentType.startsWith("image/"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        List<Integer> sentIndexes = new ArrayList<>();
+        for (int i = 0; i < images.size(); i++) {
+            PreparedImage image = images.get(i);
+            if (image != null) {
+                body.add("files", asResource(image.bytes(), image.fileName()));
+                sentIndexes.add(i);
+            }
+        }
 
-            log.info("🔍 이미지 URL 유효성: {} (응답코드: {}, 콘텐츠타입: {})",
-                    isValid, responseCode, contentType);
+        List<Map<String, String>> results = new ArrayList<>(Collections.nCopies(imageUrls.size(), EMPTY_RESULT));
+        if (sentIndexes.isEmpty()) {
+            return results;
+        }
 
-            return isValid;
-        } catch (Exception e) {
-            log.error("❌ 이미지 URL 유효성 검사 실패: {}", e.getMessage());
-            return false;
+        log.info("📦 이미지 바이트 일괄 전송: {}개", sentIndexes.size());
+        List<Map<String, String>> extracted = callAiServiceBatch(aiServiceUrl + "/extract-embeddings",
+                new HttpEntity<>(body, headers), sentIndexes.size(), status, animalType);
+        for (int i = 0; i < sentIndexes.size(); i++) {
+            results.set(sentIndexes.get(i), extracted.get(i));
         }
+        return results;
     }
 
-    private String preprocessAndCreateTempUrl(String imageUrl) {
-        try {
-            // 1. 이미지 다운로드
-            log.info("📥 이미지 다운로드 시작: {}", imageUrl);
-            URL url = new URL(imageUrl);
-            BufferedImage originalImage = ImageIO.read(url);
-
-            if (originalImage == null) {
-                log.error("❌ 이미지를 읽을 수 없음: {}", imageUrl);
-                return null;
+    // 다운로드/전처리는 이미지별로 동시에 진행한다 (전처리는 ImagePreprocessor 의 전용 풀에서 제한됨)
+    private List<PreparedImage> prepareImages(List<String> imageUrls, PostStatus status, AnimalType animalType) {
+        List<Future<PreparedImage>> futures = new ArrayList<>(imageUrls.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String imageUrl : imageUrls) {
+                futures.add(executor.submit(() -> prepareImage(imageUrl, status, animalType)));
             }
+        }
 
-            log.info("✅ 이미지 다운로드 성공: {}x{}, 타입: {}",
-                    originalImage.getWidth(), originalImage.getHeight(),
-                    originalImage.getType());
-
-            BufferedImage processedImage = convertToRGB(originalImage);
+        List<PreparedImage> images = new ArrayList<>(futures.size());
+        for (Future<PreparedImage> future : futures) {
+            try {
+                images.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("이미지 준비 대기 중 인터럽트 발생", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof ImageStorageUnavailableException unavailable) {
+                    throw unavailable;
+                }
+                log.error("❌ 이미지 준비 실패: {}", e.getCause().getMessage());
+                images.add(null);
+            }
+        }
+        return images;
+    }
 
-            return null;
-        } catch (Exception e) {
-            log.error("❌ 이미지 전처리 실패: {}", e.getMessage(), e);
+    private PreparedImage prepareImage(String imageUrl, PostStatus status, AnimalType animalType) {
+        byte[] imageBytes = pipelineMetrics.time(Stage.DOWNLOAD, status, animalType, () -> downloadImage(imageUrl));
+        if (imageBytes == null) {
             return null;
         }
-    }
 
-    private BufferedImage convertToRGB(BufferedImage original) {
-        if (original.getType() == BufferedImage.TYPE_3BYTE_BGR) {
-            return original;
+        byte[] processedBytes = pipelineMetrics.time(Stage.PREPROCESS, status, animalType,
+                () -> imagePreprocessor.preprocess(imageBytes));
+        String fileName = fileNameOf(imageUrl);
+        if (processedBytes != imageBytes) {
+            fileName = fileName.replaceFirst("\\.[^.]*$", "") + ".jpg";
         }
+        return new PreparedImage(processedBytes, fileName);
+    }
 
-        BufferedImage convertedImage = new BufferedImage(
-                original.getWidth(),
-                original.getHeight(),
-                BufferedImage.TYPE_3BYTE_BGR); // 8bit RGB 형식
+    // 이미지 바이트를 multipart 로 전송 (AI 서버에서 다시 다운로드하지 않음)
+    public Map<String, String> extractEmbeddingAndFeatures(byte[] imageBytes, String fileName,
+                                                           PostStatus status, AnimalType animalType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
 
-        Graphics2D g2d = convertedImage.createGraphics();
-        g2d.drawImage(original, 0, 0, null);
-        g2d.dispose();
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", asResource(imageBytes, fileName));
 
-        log.info("✅ 이미지 형식 변환 완료: TYPE_3BYTE_BGR (8bit RGB)");
-        return convertedImage;
+        log.info("📦 이미지 바이트 전송: {} ({} bytes)", fileName, imageBytes.length);
+        return callAiService(aiServiceUrl + "/extract-embedding", new HttpEntity<>(body, headers), status, animalType);
     }
 
-    private Map<String, String> sendUrlRequestWithRetry(String imageUrl, int attempt) {
+    private ByteArrayResource asResource(byte[] bytes, String fileName) {
+        return new ByteArrayResource(bytes) {
+            @Override
+            public String getFilename() {
+                return fileName;
+            }
+        };
+    }
+
+    // 한 번의 GET 으로 유효성 확인과 다운로드를 함께 처리
+    // 이미지가 아니거나 4xx 면 null, 연결 실패/타임아웃/5xx 는 일시적 장애로 보고 ImageStorageUnavailableException
+    private byte[] downloadImage(String imageUrl) {
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
+            ResponseEntity<byte[]> response = restTemplate.getForEntity(URI.create(imageUrl), byte[].class);
+            MediaType contentType = response.getHeaders().getContentType();
 
-            Map<String, String> body = new HashMap<>();
-            body.put("image_url", imageUrl);
+            if (response.getStatusCode() != HttpStatus.OK || response.getBody() == null
+                    || contentType == null || !"image".equals(contentType.getType())) {
+                log.error("❌ 유효하지 않은 이미지 URL: {} (응답코드: {}, 콘텐츠타입: {})",
+                        imageUrl, response.getStatusCode(), contentType);
+                return null;
+            }
 
-            HttpEntity<Map<String, String>> requestEntity = new HttpEntity<>(body, headers);
+            log.info("📥 이미지 다운로드 완료: {} ({} bytes)", imageUrl, response.getBody().length);
+            return response.getBody();
+        } catch (ResourceAccessException | HttpServerErrorException e) {
+            log.warn("⚠️ 이미지 저장소 일시 장애, 나중에 다시 시도: {}, {}", imageUrl, e.getMessage());
+            throw new ImageStorageUnavailableException("이미지 다운로드 실패: " + imageUrl, e);
+        } catch (Exception e) {
+            log.error("❌ 이미지 다운로드 실패: {}, {}", imageUrl, e.getMessage());
+            return null;
+        }
+    }
 
-            String endpoint = aiServiceUrl + "/extract-embedding-from-url";
-            log.info("📡 AI 서비스 요청 ({}/{}): POST {}", attempt + 1, MAX_RETRY, endpoint);
-            log.info("📦 요청 데이터: {}", objectMapper.writeValueAsString(body));
+    private String fileNameOf(String imageUrl) {
+        String path = URI.create(imageUrl).getPath();
+        return path != null && path.contains("/") ? path.substring(path.lastIndexOf('/') + 1) : "image";
+    }
 
-            ResponseEntity<String> response = restTemplate.postForEntity(endpoint, requestEntity, String.class);
+    private Map<String, String> sendUrlRequest(String imageUrl, PostStatus status, AnimalType animalType) throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
 
-            log.info("📄 AI 서비스 응답 상태: {}", response.getStatusCode());
+        Map<String, String> body = new HashMap<>();
+        body.put("image_url", imageUrl);
+        log.info("📦 요청 데이터: {}", objectMapper.writeValueAsString(body));
 
-            if (response.getStatusCode() == HttpStatus.OK) {
-                JsonNode jsonNode = objectMapper.readTree(response.getBody());
-                if (jsonNode == null || jsonNode.get("embedding") == null || jsonNode.get("features") == null) {
-                    log.error("🚨 FastAPI 임베딩 추출 실패: 응답 값이 유효하지 않음");
-                    return Map.of("embedding", "[]", "features", "[]");
-                }
+        return callAiService(aiServiceUrl + "/extract-embedding-from-url", new HttpEntity<>(body, headers), status, animalType);
+    }
 
-                Map<String, String> result = new HashMap<>();
-                result.put("embedding", jsonNode.get("embedding").toString());
-                result.put("features", jsonNode.get("features").toString());
-                return result;
-            } else {
-                log.error("❌ AI 서비스 응답 오류: {}", response.getStatusCode());
-
-                if (attempt < MAX_RETRY - 1) {
-                    log.info("⏱️ 재시도 대기 중... ({}/{})", attempt + 1, MAX_RETRY);
-                    TimeUnit.MILLISECONDS.sleep(RETRY_DELAY_MS);
-                    return sendUrlRequestWithRetry(imageUrl, attempt + 1);
-                }
+    // 실패 응답(4xx, 잘못된 응답 본문)은 빈 결과로, AI 서버 장애(AiServiceUnavailableException)와 동시 호출 상한 초과(AiServiceBusyException)는 그대로 전달
+    private Map<String, String> callAiService(String endpoint, HttpEntity<?> requestEntity,
+                                              PostStatus status, AnimalType animalType) {
+        Timer.Sample sample = pipelineMetrics.start();
+        try {
+            return aiServiceResilience.execute(() -> postForEmbedding(endpoint, requestEntity));
+        } catch (AiServiceUnavailableException e) {
+            log.error("🚨 AI 서비스 사용 불가: {}", e.getMessage());
+            throw e;
+        } catch (RestClientException e) {
+            log.error("❌ AI 서비스 요청 실패: {}", e.getMessage());
+            return EMPTY_RESULT;
+        } finally {
+            pipelineMetrics.stop(sample, Stage.EXTRACTION, status, animalType);
+        }
+    }
 
-                return Map.of("embedding", "[]", "features", "[]");
-            }
+    private List<Map<String, String>> callAiServiceBatch(String endpoint, HttpEntity<?> requestEntity, int expectedCount,
+                                                         PostStatus status, AnimalType animalType) {
+        Timer.Sample sample = pipelineMetrics.start();
+        try {
+            return aiServiceResilience.execute(() -> postForEmbeddings(endpoint, requestEntity, expectedCount));
+        } catch (AiServiceUnavailableException e) {
+            log.error("🚨 AI 서비스 사용 불가: {}", e.getMessage());
+            throw e;
         } catch (RestClientException e) {
-            log.error("❌ AI 서비스 통신 오류: {}", e.getMessage());
-
-            if (attempt < MAX_RETRY - 1) {
-                try {
-                    log.info("⏱️ 통신 오류로 인한 재시도 대기 중... ({}/{})", attempt + 1, MAX_RETRY);
-                    TimeUnit.MILLISECONDS.sleep(RETRY_DELAY_MS);
-                    return sendUrlRequestWithRetry(imageUrl, attempt + 1);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                }
-            }
+            log.error("❌ AI 서비스 일괄 요청 실패: {}", e.getMessage());
+            return Collections.nCopies(expectedCount, EMPTY_RESULT);
+        } finally {
+            pipelineMetrics.stop(sample, Stage.EXTRACTION, status, animalType);
+        }
+    }
 
-            return Map.of("embedding", "[]", "features", "[]");
-        } catch (Exception e) {
-            log.error("❌ 예상치 못한 오류 발생: {}", e.getMessage(), e);
-
-            if (attempt < MAX_RETRY - 1) {
-                try {
-                    log.info("⏱️ 오류로 인한 재시도 대기 중... ({}/{})", attempt + 1, MAX_RETRY);
-                    TimeUnit.MILLISECONDS.sleep(RETRY_DELAY_MS);
-                    return sendUrlRequestWithRetry(imageUrl, attempt + 1);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                }
+    // {"results": [{"embedding": [...], "features": [...], "model_version": "...", "success": true}, ...]}
+    private List<Map<String, String>> postForEmbeddings(String endpoint, HttpEntity<?> requestEntity, int expectedCount) {
+        log.info("📡 AI 서비스 요청: POST {} ({}개)", endpoint, expectedCount);
+
+        ResponseEntity<String> response = restTemplate.postForEntity(endpoint, requestEntity, String.class);
+
+        log.info("📄 AI 서비스 응답 상태: {}", response.getStatusCode());
+
+        try {
+            JsonNode results = objectMapper.readTree(response.getBody()).get("results");
+            if (results == null || !results.isArray() || results.size() != expectedCount) {
+                log.error("🚨 FastAPI 일괄 임베딩 추출 실패: 응답 값이 유효하지 않음");
+                return Collections.nCopies(expectedCount, EMPTY_RESULT);
             }
 
-            return Map.of("embedding", "[]", "features", "[]");
+            List<Map<String, String>> extracted = new ArrayList<>(expectedCount);
+            for (JsonNode result : results) {
+                extracted.add(toResult(result));
+            }
+            return extracted;
+        } catch (IOException e) {
+            log.error("🚨 FastAPI 응답 파싱 실패: {}", e.getMessage());
+            return Collections.nCopies(expectedCount, EMPTY_RESULT);
         }
     }
 
-    public double calculateSimilarity(
-            List<Double> findingEmbedding, List<Double> findingFeatures,
-            List<Double> sightedEmbedding, List<Double> sightedFeatures) {
-        if (findingEmbedding == null || findingEmbedding.isEmpty() ||
-                sightedEmbedding == null || sightedEmbedding.isEmpty()) {
-            log.warn("⚠️ 빈 임베딩으로 유사도 계산 불가");
-            return 0.0;
-        }
-
-        log.info("🔍 FastAPI 유사도 비교 요청");
+    private Map<String, String> postForEmbedding(String endpoint, HttpEntity<?> requestEntity) {
+        log.info("📡 AI 서비스 요청: POST {}", endpoint);
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> response = restTemplate.postForEntity(endpoint, requestEntity, String.class);
 
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("finding_embedding", findingEmbedding);
-        requestBody.put("finding_features", findingFeatures);
-        requestBody.put("sighted_embedding", sightedEmbedding);
-        requestBody.put("sighted_features", sightedFeatures);
-
-        HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(requestBody, headers);
+        log.info("📄 AI 서비스 응답 상태: {}", response.getStatusCode());
 
         try {
-            String endpoint = aiServiceUrl + "/compare-embeddings";
-            ResponseEntity<JsonNode> response = restTemplate.postForEntity(endpoint, requestEntity, JsonNode.class);
+            return toResult(objectMapper.readTree(response.getBody()));
+        } catch (IOException e) {
+            log.error("🚨 FastAPI 응답 파싱 실패: {}", e.getMessage());
+            return EMPTY_RESULT;
+        }
+    }
 
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                double similarity = response.getBody().get("similarity").asDouble();
-                log.info("✅ 유사도 계산 완료: {}", similarity);
-                return similarity;
-            }
-        } catch (Exception e) {
-            log.error("❌ FastAPI 유사도 비교 요청 실패: {}", e.getMessage());
+    private Map<String, String> toResult(JsonNode jsonNode) {
+        if (jsonNode == null || jsonNode.get("embedding") == null || jsonNode.get("features") == null) {
+            log.error("🚨 FastAPI 임베딩 추출 실패: 응답 값이 유효하지 않음");
+            return EMPTY_RESULT;
         }
-        return 0.0;
+
+        Map<String, String> result = new HashMap<>();
+        result.put("embedding", jsonNode.get("embedding").toString());
+        result.put("features", jsonNode.get("features").toString());
+        JsonNode modelVersion = jsonNode.get("model_version");
+        result.put("model_version", modelVersion != null && !modelVersion.isNull()
+                ? modelVersion.asText() : defaultModelVersion);
+        return result;
     }
 }
@@ -1,13 +1,16 @@
 package com.patrol.domain.ai.service;
 
 import com.patrol.domain.ai.entity.AiImage;
+import com.patrol.domain.ai.entity.AiMatch;
 import com.patrol.domain.ai.event.AiImageSavedEvent;
 import com.patrol.domain.ai.repository.AiImageRepository;
+import com.patrol.domain.ai.repository.AiMatchRepository;
 import com.patrol.domain.comment.entity.Comment;
 import com.patrol.domain.comment.repository.CommentRepository;
 import com.patrol.domain.image.entity.Image;
 import com.patrol.domain.image.repository.ImageRepository;
 import com.patrol.domain.lostFoundPost.entity.LostFoundPost;
+import com.patrol.domain.lostFoundPost.entity.PostStatus;
 import com.patrol.domain.lostFoundPost.repository.LostFoundPostRepository;
 import com.patrol.domain.member.member.repository.MemberRepository;
 import lombok.RequiredArgsConstructor;
@@ -15,17 +18,24 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AiImageService {
     private final AiImageRepository aiImageRepository;
+    private final AiMatchRepository aiMatchRepository;
     private final LostFoundPostRepository lostFoundPostRepository;
     private final CommentRepository commentRepository;
     private final ImageRepository imageRepository;
@@ -35,38 +45,98 @@ public class AiImageService {
     @Value("${app.domain}")
     private String domain;
 
+    // 게시글의 모든 이미지를 AI 이미지로 등록한다. 이미 등록된 경로는 건너뛴다 (게시글 수정 시 추가된 이미지만 등록)
     @Transactional
-    public void saveAiImages (List<MultipartFile> images, Long foundId, LostFoundPost lostFoundPost) {
-        Image firstImage = null;
-
-        if (images != null && images.size() == 1) {
-            firstImage = imageRepository.findByFoundId(foundId);
-        } else {
-            firstImage = imageRepository.findFirstByFoundIdOrderByCreatedAtAsc(foundId).orElse(null);
-        }
-
-        AiImage aiImage = null;
-        if (firstImage != null) {
-            String firstImagePath = firstImage.getPath();
-
-            aiImage = new AiImage();
+    public void saveAiImages(Long foundId, LostFoundPost lostFoundPost) {
+        Set<String> registeredPaths = aiImageRepository.findAllByLostFoundPostId(foundId).stream()
+                .map(AiImage::getPath)
+                .collect(Collectors.toSet());
+
+        List<AiImage> aiImages = new ArrayList<>();
+        for (Image image : imageRepository.findAllByFoundId(foundId)) {
+            if (registeredPaths.contains(image.getPath())) {
+                continue;
+            }
+            AiImage aiImage = new AiImage();
             aiImage.setLostFoundPost(lostFoundPost);
-            aiImage.setPath(firstImagePath);
+            aiImage.setPath(image.getPath());
+            aiImage.setContentHash(image.getContentHash());
+            aiImage.setPerceptualHash(image.getPerceptualHash());
             aiImage.setCreatedAt(LocalDateTime.now());
             aiImage.setStatus(lostFoundPost.getStatus());
             aiImage.setAnimalType(lostFoundPost.getAnimalType());
+            aiImages.add(aiImage);
+        }
 
-            aiImageRepository.save(aiImage);
-            log.info("✅ AI 이미지 저장 완료! ID={}, 상태={}", aiImage.getId(), aiImage.getStatus());
-
-        } else {
+        if (aiImages.isEmpty()) {
             log.warn("🚨 저장할 이미지가 없습니다. foundId={}", foundId);
+            return;
         }
-        eventPublisher.publishEvent(new AiImageSavedEvent(aiImage));
+
+        aiImageRepository.saveAll(aiImages);
+        log.info("✅ AI 이미지 저장 완료! 게시글 ID={}, {}개, 상태={}", foundId, aiImages.size(), lostFoundPost.getStatus());
+        eventPublisher.publishEvent(new AiImageSavedEvent(lostFoundPost.getId(), aiImages));
+    }
+
+    // 게시글 상태가 바뀌면 AI 이미지의 상태도 맞춘다 (재매칭/인덱스가 반대 상태를 고르는 기준)
+    @Transactional
+    public void updateStatus(Long postId, PostStatus status) {
+        int updated = aiImageRepository.updateStatusByLostFoundPostId(postId, status);
+        log.info("🔄 AI 이미지 상태 변경: 게시글 ID={}, {}개, 상태={}", postId, updated, status);
     }
 
+    // 배치로 추출된 임베딩을 한 트랜잭션에서 일괄 반영
     @Transactional
-    public void linkSightedToFindingPost(AiImage newImage, AiImage targetImage, double similarity) {
+    public List<AiImage> saveEmbeddings(Map<Long, ExtractedEmbedding> embeddings) {
+        return saveEmbeddings(embeddings, Map.of());
+    }
+
+    // reusedFrom 에 있는 이미지는 근접 중복 원본의 임베딩을 재사용한 것으로 기록한다 (이미지 ID -> 원본 이미지 ID)
+    @Transactional
+    public List<AiImage> saveEmbeddings(Map<Long, ExtractedEmbedding> embeddings, Map<Long, Long> reusedFrom) {
+        List<AiImage> aiImages = aiImageRepository.findAllById(embeddings.keySet());
+        for (AiImage aiImage : aiImages) {
+            ExtractedEmbedding extracted = embeddings.get(aiImage.getId());
+            aiImage.applyExtracted(extracted.embedding(), extracted.features(), extracted.modelVersion());
+            aiImage.setEmbeddingSourceId(reusedFrom.get(aiImage.getId()));
+        }
+        aiImageRepository.saveAll(aiImages);
+
+        if (aiImages.size() != embeddings.size()) {
+            log.warn("⚠️ 존재하지 않는 이미지 {}건은 저장에서 제외", embeddings.size() - aiImages.size());
+        }
+        return aiImages;
+    }
+
+    // 근접 중복 원본 이미지들의 임베딩 (이미지 ID -> 임베딩), 임베딩이 없거나 삭제된 이미지는 제외
+    @Transactional(readOnly = true)
+    public Map<Long, ExtractedEmbedding> findEmbeddings(Collection<Long> aiImageIds) {
+        Map<Long, ExtractedEmbedding> embeddings = new HashMap<>();
+        for (AiImage aiImage : aiImageRepository.findAllById(aiImageIds)) {
+            if (aiImage.hasEmbedding()) {
+                embeddings.put(aiImage.getId(), new ExtractedEmbedding(
+                        aiImage.getEmbeddingValues(), aiImage.getFeaturesValues(), aiImage.getModelVersion()));
+            }
+        }
+        return embeddings;
+    }
+
+    /**
+     * 매칭 기록과 댓글을 별도 트랜잭션에서 함께 저장한다.
+     * 같은 쌍이 이미 기록돼 있으면 유니크 제약 위반(DataIntegrityViolationException)으로 전체가 롤백되어 댓글도 남지 않는다.
+     * 두 게시글이 이전 모델 버전이나 다른 이미지 쌍으로 이미 연동됐다면 점수만 기록하고 댓글은 다시 달지 않는다.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void linkSightedToFindingPost(AiImage newImage, AiImage targetImage, double similarity, String modelVersion) {
+        AiMatch match = new AiMatch(newImage.getId(), targetImage.getId(), modelVersion, similarity);
+        boolean alreadyLinked = aiMatchRepository.existsBetweenPosts(
+                newImage.getLostFoundPost().getId(), targetImage.getLostFoundPost().getId());
+        aiMatchRepository.saveAndFlush(match);
+        if (alreadyLinked) {
+            log.info("⏭️ 이미 연동된 게시글 쌍, 점수만 기록: imageId={}, targetId={}", newImage.getId(), targetImage.getId());
+            return;
+        }
+
         LostFoundPost targetPost = lostFoundPostRepository.findById(targetImage.getLostFoundPost().getId())
                 .orElseThrow(() -> new IllegalArgumentException("🚨 해당 이미지 ID에 대한 게시글을 찾을 수 없음: " + targetImage.getId()));
         LostFoundPost findWantPost = lostFoundPostRepository.findById(newImage.getLostFoundPost().getId())
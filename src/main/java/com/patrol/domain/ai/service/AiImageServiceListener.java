@@ -10,6 +10,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -19,14 +21,18 @@ public class AiImageServiceListener {
 
     @TransactionalEventListener
     public void onAiImageSaved(AiImageSavedEvent event) {
-        AiImage image = event.getAiImage();
+        List<AiImage> pending = event.getAiImages().stream()
+                .filter(image -> image.getStatus() == PostStatus.SIGHTED
+                        || !aiImageRepository.existsByEmbeddingIsNotNullOrFeaturesIsNotNullAndId(image.getId()))
+                .toList();
 
-        if (!aiImageRepository.existsByEmbeddingIsNotNullOrFeaturesIsNotNullAndId(image.getId())
-                || image.getStatus() == PostStatus.SIGHTED) {
-            log.info("🔍 AI 서버에 이미지 분석 요청: imageId={}", image.getId());
-            imageEventProducer.sendImageEvent(image.getId(), image.getPath());
-        } else {
-            log.info("✅ 이미 임베딩된 이미지: {}", image.getId());
+        if (pending.isEmpty()) {
+            log.info("✅ 이미 임베딩된 이미지: postId={}", event.getPostId());
+            return;
         }
+
+        // 게시글 단위로 한 번에 추출하도록 이미지들을 하나의 이벤트로 보낸다
+        log.info("🔍 AI 서버에 이미지 분석 요청: postId={}, {}개", event.getPostId(), pending.size());
+        imageEventProducer.sendPostImagesEvent(event.getPostId(), pending);
     }
 }
@@ -0,0 +1,64 @@
+package com.patrol.domain.ai.service;
+
+import com.patrol.domain.ai.codec.EmbeddingCodec;
+import com.patrol.domain.ai.entity.AiImage;
+import com.patrol.domain.ai.repository.AiImageRepository;
+import com.patrol.global.backfill.ChunkedBackfill;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// JSON TEXT 컬럼에 남아있는 임베딩을 바이너리 컬럼으로 옮기는 일회성 마이그레이션
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class EmbeddingMigrationService implements ChunkedBackfill {
+    private final AiImageRepository aiImageRepository;
+
+    @Value("${app.embedding.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.embedding.migration.chunk-size:200}")
+    private int chunkSize;
+
+    @Override
+    public String backfillName() {
+        return "임베딩 바이너리 변환";
+    }
+
+    @Override
+    public boolean isBackfillEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public int backfillChunkSize() {
+        return chunkSize;
+    }
+
+    @Override
+    @Transactional
+    public Long backfillChunk(Long lastId, int chunkSize) {
+        List<AiImage> chunk = aiImageRepository.findLegacyEmbeddingsAfter(lastId, PageRequest.of(0, chunkSize));
+        if (chunk.isEmpty()) {
+            return null;
+        }
+
+        for (AiImage aiImage : chunk) {
+            try {
+                float[] embedding = EmbeddingCodec.fromJson(aiImage.getEmbedding());
+                float[] features = EmbeddingCodec.fromJson(aiImage.getFeatures());
+                aiImage.setEmbeddingValues(embedding);
+                aiImage.setFeaturesValues(features);
+            } catch (IllegalArgumentException e) {
+                log.warn("⚠️ 임베딩 변환 실패, 기존 JSON 유지: imageId={}, {}", aiImage.getId(), e.getMessage());
+            }
+        }
+        return chunk.get(chunk.size() - 1).getId();
+    }
+}
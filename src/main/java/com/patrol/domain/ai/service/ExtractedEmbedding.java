@@ -0,0 +1,21 @@
+package com.patrol.domain.ai.service;
+
+import com.patrol.domain.ai.codec.EmbeddingCodec;
+
+import java.util.Map;
+
+public record ExtractedEmbedding(float[] embedding, float[] features, String modelVersion) {
+
+    // AiClient 추출 결과({"embedding": "[...]", "features": "[...]", "model_version": "..."})를 변환, 추출 실패 시 null
+    public static ExtractedEmbedding fromJson(Map<String, String> embeddingData) {
+        if (embeddingData == null || !embeddingData.containsKey("embedding")) {
+            return null;
+        }
+        float[] embedding = EmbeddingCodec.fromJson(embeddingData.get("embedding"));
+        if (embedding == null || embedding.length == 0) {
+            return null;
+        }
+        return new ExtractedEmbedding(embedding, EmbeddingCodec.fromJson(embeddingData.get("features")),
+                embeddingData.get("model_version"));
+    }
+}
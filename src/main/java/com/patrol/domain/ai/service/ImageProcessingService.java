@@ -1,107 +1,294 @@
 package com.patrol.domain.ai.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patrol.domain.ai.cache.EmbeddingCache;
 import com.patrol.domain.ai.entity.AiImage;
+import com.patrol.domain.ai.index.EmbeddingIndex;
+import com.patrol.domain.ai.metrics.AiPipelineMetrics;
+import com.patrol.domain.ai.metrics.AiPipelineMetrics.Stage;
 import com.patrol.domain.ai.repository.AiImageRepository;
+import com.patrol.domain.ai.repository.AiMatchRepository;
+import com.patrol.domain.ai.similarity.CandidateTimeWindow;
+import com.patrol.domain.ai.similarity.SimilarityEngine;
+import com.patrol.domain.lostFoundPost.entity.LostFoundPost;
 import com.patrol.domain.lostFoundPost.entity.PostStatus;
+import com.patrol.standard.util.Ut;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Collections;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class ImageProcessingService {
     private final AiImageRepository aiImageRepository;
-    private final PythonMLService pythonMLService;
-    private final ObjectMapper objectMapper;
+    private final AiMatchRepository aiMatchRepository;
+    private final SimilarityEngine similarityEngine;
     private final AiImageService aiImageService;
     private final AiClient aiClient;
+    private final EmbeddingIndex embeddingIndex;
+    private final EmbeddingCache embeddingCache;
+    private final AiPipelineMetrics pipelineMetrics;
+    private final CandidateTimeWindow candidateTimeWindow;
 
-    @Async
-    public void asyncProcessImageFind(Long imageId) {
-        processImageSimilarity(imageId, PostStatus.FINDING);
+    private static final double SEARCH_RADIUS_KM = 10.0;
+
+    @Value("${app.similarity.threshold}")
+    private double similarityThreshold;
+
+    @Value("${app.similarity.candidate-threshold:0.75}")
+    private double candidateThreshold;
+
+    @Value("${app.similarity.top-k:20}")
+    private int topK;
+
+    // max: 모든 이미지 쌍 중 최고 점수, mean: 내 이미지별로 상대 게시글에서 가장 비슷한 이미지 점수의 평균
+    @Value("${app.similarity.post-aggregation:max}")
+    private String postAggregation;
+
+    // 게시글 쌍의 유사도와 그 점수를 만든(또는 가장 높은) 이미지 쌍
+    private record PostMatch(double similarity, int queryIndex, int candidateIndex) {
     }
 
     @Async
-    public void asyncProcessSightedImage(Long imageId) {
-        processImageSimilarity(imageId, PostStatus.SIGHTED);
+    public void asyncProcessPost(Long postId) {
+        processPostSimilarity(postId);
     }
 
+    /**
+     * 게시글의 이미지 전체를 반대 상태 게시글들의 이미지 전체와 비교해 게시글 단위로 매칭한다.
+     * 다른 각도에서 찍은 사진이 섞여 있어도 이미지 한 쌍이라도 충분히 비슷하면 매칭된다 (max 기준).
+     */
     @Transactional
-    public void processImageSimilarity(Long imageId, PostStatus targetStatus) {
+    public void processPostSimilarity(Long postId) {
         try {
-            log.info("📩 Kafka 메시지 수신 (유사도 분석 - {} 기준): imageId={}", targetStatus, imageId);
-
-            AiImage newImage = aiImageRepository.findById(imageId)
-                    .orElseThrow(() -> new RuntimeException("🚨 이미지 ID " + imageId + "를 찾을 수 없음"));
-
-            if (newImage.getEmbedding() == null) {
-                log.info("🚀 AI 분석 요청 (비동기) 시작: imageId={}", imageId);
-
-                CompletableFuture<Map<String, String>> embeddingFuture = aiClient.extractEmbeddingAsync(newImage.getPath());
-
-                embeddingFuture.thenAccept(embeddingData -> {
-                    if (embeddingData.containsKey("embedding")) {
-                        newImage.setEmbedding(embeddingData.get("embedding"));
-                        newImage.setFeatures(embeddingData.get("features"));
-                        aiImageRepository.save(newImage);
-                        log.info("✅ 임베딩 데이터 저장 완료 (비동기): imageId={}", imageId);
-                    } else {
-                        log.error("🚨 임베딩 추출 실패: imageId={}", imageId);
-                    }
-                });
+            log.info("📩 유사도 분석 시작: postId={}", postId);
+
+            List<AiImage> queryImages = ensureEmbeddings(aiImageRepository.findAllByLostFoundPostId(postId));
+            if (queryImages.isEmpty()) {
                 return;
             }
 
-            PostStatus oppositeStatus = (targetStatus == PostStatus.FINDING) ? PostStatus.SIGHTED : PostStatus.FINDING;
-
-            List<AiImage> nearbyTargetImages = aiImageRepository.findNearbyAiImages(
-                            newImage.getLostFoundPost().getLatitude(),
-                            newImage.getLostFoundPost().getLongitude(),
-                            10.0
-                    ).stream()
-                    .filter(img -> img.getStatus() == oppositeStatus)
+            AiImage first = queryImages.get(0);
+            PostStatus status = first.getStatus();
+            if (status != PostStatus.FINDING && status != PostStatus.SIGHTED) {
+                return;
+            }
+            PostStatus oppositeStatus = (status == PostStatus.FINDING) ? PostStatus.SIGHTED : PostStatus.FINDING;
+            String modelVersion = first.getModelVersion();
+            List<AiImage> sameVersionImages = queryImages.stream()
+                    .filter(image -> Objects.equals(image.getModelVersion(), modelVersion))
                     .toList();
 
-            nearbyTargetImages = nearbyTargetImages.stream()
-                    .filter(img -> img.getEmbedding() != null)
-                    .toList();
+            Map<Long, List<AiImage>> candidatesByPost = pipelineMetrics.time(Stage.CANDIDATE_QUERY, status, first.getAnimalType(),
+                    () -> embeddingIndex.isReady()
+                            ? findIndexedCandidates(sameVersionImages, oppositeStatus, modelVersion)
+                            : findNearbyCandidates(first, oppositeStatus));
+            excludeLinkedPosts(postId, candidatesByPost, modelVersion);
 
-            log.info("🔍 유사도 분석 대상: {}개", nearbyTargetImages.size());
+            List<AiImage> candidates = new ArrayList<>();
+            Map<Long, List<Integer>> columnsByPost = new LinkedHashMap<>();
+            candidatesByPost.forEach((candidatePostId, images) -> images.forEach(image -> {
+                columnsByPost.computeIfAbsent(candidatePostId, id -> new ArrayList<>()).add(candidates.size());
+                candidates.add(image);
+            }));
 
-            for (AiImage targetImage : nearbyTargetImages) {
-                double similarity = pythonMLService.compareEmbeddingsAndFeatures(
-                        extractEmbeddingAsList(newImage.getEmbedding()),
-                        extractEmbeddingAsList(newImage.getFeatures()),
-                        extractEmbeddingAsList(targetImage.getEmbedding()),
-                        extractEmbeddingAsList(targetImage.getFeatures())
-                );
+            log.info("🔍 유사도 분석 대상: 게시글 {}개, 이미지 {}개 x {}개",
+                    columnsByPost.size(), sameVersionImages.size(), candidates.size());
+            if (candidates.isEmpty()) {
+                return;
+            }
 
-                if (similarity >= 0.85) {
-                    log.info("🔍 유사한 게시글 발견! targetId={}, 유사도={}", targetImage.getId(), similarity);
-                    aiImageService.linkSightedToFindingPost(newImage, targetImage, similarity);
+            long scoringStart = System.nanoTime();
+            List<SimilarityCandidate> similarityCandidates = candidates.stream().map(SimilarityCandidate::from).toList();
+            double[][] similarities = new double[sameVersionImages.size()][];
+            for (int i = 0; i < sameVersionImages.size(); i++) {
+                AiImage queryImage = sameVersionImages.get(i);
+                similarities[i] = similarityEngine.scoreAgainst(queryImage.getEmbeddingValues(), similarityCandidates);
+            }
+            pipelineMetrics.recordScoring(Duration.ofNanos(System.nanoTime() - scoringStart),
+                    sameVersionImages.size() * candidates.size(), status, first.getAnimalType());
+
+            for (Map.Entry<Long, List<Integer>> entry : columnsByPost.entrySet()) {
+                PostMatch match = aggregate(similarities, entry.getValue());
+                if (match.similarity() < similarityThreshold) {
+                    continue;
+                }
+
+                AiImage queryImage = sameVersionImages.get(match.queryIndex());
+                AiImage targetImage = candidates.get(match.candidateIndex());
+                log.info("🔍 유사한 게시글 발견! targetPostId={}, 유사도={}", entry.getKey(), match.similarity());
+                try {
+                    pipelineMetrics.time(Stage.COMMENT_LINKING, status, first.getAnimalType(),
+                            () -> aiImageService.linkSightedToFindingPost(queryImage, targetImage, match.similarity(), modelVersion));
+                } catch (DataIntegrityViolationException e) {
+                    // 동시에 처리된 같은 쌍이 먼저 기록됨
+                    log.info("⏭️ 이미 연동된 매칭: postId={}, targetPostId={}", postId, entry.getKey());
                 }
             }
         } catch (Exception e) {
-            log.error("🚨 Kafka 메시지 처리 중 오류 발생: {}", e.getMessage(), e);
+            log.error("🚨 유사도 분석 중 오류 발생: postId={}, {}", postId, e.getMessage(), e);
         }
     }
 
-    private List<Double> extractEmbeddingAsList(String jsonEmbedding) {
-        try {
-            return jsonEmbedding != null ? objectMapper.readValue(jsonEmbedding, new TypeReference<>() {}) : Collections.emptyList();
-        } catch (Exception e) {
-            log.error("🚨 임베딩 변환 실패: {}", e.getMessage());
-            return Collections.emptyList();
+    private PostMatch aggregate(double[][] similarities, List<Integer> columns) {
+        int bestQuery = 0;
+        int bestCandidate = columns.get(0);
+        double best = Double.NEGATIVE_INFINITY;
+        double bestPerQuerySum = 0;
+
+        for (int i = 0; i < similarities.length; i++) {
+            double bestForQuery = Double.NEGATIVE_INFINITY;
+            for (int column : columns) {
+                double similarity = similarities[i][column];
+                bestForQuery = Math.max(bestForQuery, similarity);
+                if (similarity > best) {
+                    best = similarity;
+                    bestQuery = i;
+                    bestCandidate = column;
+                }
+            }
+            bestPerQuerySum += bestForQuery;
         }
+
+        double score = "mean".equalsIgnoreCase(postAggregation) ? bestPerQuerySum / similarities.length : best;
+        return new PostMatch(score, bestQuery, bestCandidate);
+    }
+
+    // 임베딩이 없는 이미지는 캐시에서 채우거나 비동기로 추출을 요청하고, 임베딩이 있는 이미지만 반환한다
+    private List<AiImage> ensureEmbeddings(List<AiImage> postImages) {
+        List<AiImage> embedded = new ArrayList<>(postImages.size());
+        for (AiImage image : postImages) {
+            if (!image.hasEmbedding()) {
+                ExtractedEmbedding cached = embeddingCache.get(image.getContentHash());
+                if (cached == null) {
+                    requestEmbedding(image);
+                    continue;
+                }
+                log.info("♻️ 캐시된 임베딩 재사용: imageId={}", image.getId());
+                image.applyExtracted(cached.embedding(), cached.features(), cached.modelVersion());
+                aiImageRepository.save(image);
+                embeddingIndex.upsert(image);
+            }
+            embedded.add(image);
+        }
+        return embedded;
+    }
+
+    // 매칭 기록이 이미 있는 게시글 쌍은 다시 계산하지 않는다 (재전송/재처리 시 중복 댓글 방지)
+    private void excludeLinkedPosts(Long postId, Map<Long, List<AiImage>> candidatesByPost, String modelVersion) {
+        if (candidatesByPost.isEmpty()) {
+            return;
+        }
+        Set<Long> linkedPostIds = new HashSet<>(aiMatchRepository.findLinkedPostIds(
+                postId, candidatesByPost.keySet(), modelVersion));
+        if (!linkedPostIds.isEmpty()) {
+            log.info("⏭️ 이미 매칭된 게시글 {}개 제외: postId={}", linkedPostIds.size(), postId);
+            candidatesByPost.keySet().removeAll(linkedPostIds);
+        }
+    }
+
+    private void requestEmbedding(AiImage newImage) {
+        Long imageId = newImage.getId();
+        log.info("🚀 AI 분석 요청 (비동기) 시작: imageId={}", imageId);
+
+        CompletableFuture<Map<String, String>> embeddingFuture = aiClient.extractEmbeddingAsync(
+                newImage.getPath(), newImage.getStatus(), newImage.getAnimalType());
+
+        embeddingFuture.thenAccept(embeddingData -> {
+            ExtractedEmbedding extracted = ExtractedEmbedding.fromJson(embeddingData);
+            if (extracted != null) {
+                newImage.applyExtracted(extracted.embedding(), extracted.features(), extracted.modelVersion());
+                aiImageRepository.save(newImage);
+                embeddingIndex.upsert(newImage);
+                embeddingCache.put(newImage.getContentHash(), extracted);
+                log.info("✅ 임베딩 데이터 저장 완료 (비동기): imageId={}", imageId);
+            } else {
+                log.error("🚨 임베딩 추출 실패: imageId={}", imageId);
+            }
+        }).exceptionally(e -> {
+            log.error("🚨 임베딩 추출 실패: imageId={}, {}", imageId, e.getMessage());
+            return null;
+        });
+    }
+
+    /**
+     * 게시글의 이미지마다 인덱스에서 상위 후보를 찾고, 후보가 속한 게시글의 이미지 전체를 가져온다.
+     * 반환값은 후보 게시글 ID -> 해당 게시글의 임베딩된 이미지 목록.
+     * 반경/시각 조건을 통과하는 이미지가 드물어 인덱스 탐색으로 후보를 다 채우지 못하면,
+     * 탐색을 넓히는 대신 geohash 셀 조회로 조건에 맞는 후보 전체를 가져온다 (이 경우 후보 수 자체가 적다).
+     */
+    private Map<Long, List<AiImage>> findIndexedCandidates(List<AiImage> queryImages, PostStatus oppositeStatus,
+                                                           String modelVersion) {
+        CandidateTimeWindow.Range timeRange = timeRangeOf(queryImages.get(0).getLostFoundPost());
+        Set<Long> matchedIds = new HashSet<>();
+        for (AiImage queryImage : queryImages) {
+            EmbeddingIndex.MatchSearch search = embeddingIndex.search(
+                    queryImage, oppositeStatus, SEARCH_RADIUS_KM, topK, candidateThreshold, timeRange);
+            if (search.truncated()) {
+                log.info("🗺️ 후보 조건이 좁아 geohash 셀 조회로 전환: postId={}", queryImage.getLostFoundPost().getId());
+                return findNearbyCandidates(queryImages.get(0), oppositeStatus);
+            }
+            search.matches().forEach(match -> matchedIds.add(match.aiImageId()));
+        }
+        if (matchedIds.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+
+        Set<Long> candidatePostIds = new HashSet<>();
+        Set<Long> foundIds = new HashSet<>();
+        for (AiImage targetImage : aiImageRepository.findAllById(matchedIds)) {
+            candidatePostIds.add(targetImage.getLostFoundPost().getId());
+            foundIds.add(targetImage.getId());
+        }
+        // 삭제된 게시글의 이미지는 인덱스에서도 제거
+        matchedIds.stream().filter(id -> !foundIds.contains(id)).forEach(embeddingIndex::remove);
+        if (candidatePostIds.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+
+        return aiImageRepository.findEmbeddedByPostIds(candidatePostIds, modelVersion).stream()
+                .collect(Collectors.groupingBy(image -> image.getLostFoundPost().getId(), LinkedHashMap::new, Collectors.toList()));
+    }
+
+    private Map<Long, List<AiImage>> findNearbyCandidates(AiImage queryImage, PostStatus oppositeStatus) {
+        LostFoundPost post = queryImage.getLostFoundPost();
+        if (post.getLatitude() == null || post.getLongitude() == null) {
+            return new LinkedHashMap<>();
+        }
+
+        Set<String> cells = Ut.geo.coveringGeohashes(
+                post.getLatitude(), post.getLongitude(), SEARCH_RADIUS_KM, LostFoundPost.GEO_CELL_PRECISION);
+        CandidateTimeWindow.Range timeRange = timeRangeOf(post);
+
+        return aiImageRepository.findEmbeddedInCells(
+                        cells, oppositeStatus, queryImage.getAnimalType(), queryImage.getModelVersion(),
+                        timeRange != null ? timeRange.from() : null, timeRange != null ? timeRange.to() : null).stream()
+                .filter(img -> {
+                    LostFoundPost target = img.getLostFoundPost();
+                    return target.getLatitude() != null && target.getLongitude() != null
+                            && Ut.geo.distanceKm(post.getLatitude(), post.getLongitude(),
+                            target.getLatitude(), target.getLongitude()) <= SEARCH_RADIUS_KM;
+                })
+                .filter(AiImage::hasEmbedding)
+                .collect(Collectors.groupingBy(image -> image.getLostFoundPost().getId(), LinkedHashMap::new, Collectors.toList()));
+    }
+
+    private CandidateTimeWindow.Range timeRangeOf(LostFoundPost post) {
+        return post != null ? candidateTimeWindow.rangeFor(post.getStatus(), post.getEventAt()) : null;
     }
 }
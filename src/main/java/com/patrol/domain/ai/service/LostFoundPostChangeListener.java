@@ -0,0 +1,27 @@
+package com.patrol.domain.ai.service;
+
+import com.patrol.domain.ai.index.EmbeddingIndex;
+import com.patrol.domain.lostFoundPost.event.LostFoundPostChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// 게시글 수정/삭제가 커밋된 뒤 게시글 값으로 만든 유사도 데이터를 갱신한다
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LostFoundPostChangeListener {
+    private final EmbeddingIndex embeddingIndex;
+    private final SimilarPostService similarPostService;
+
+    @TransactionalEventListener
+    public void onPostChanged(LostFoundPostChangedEvent event) {
+        if (event.isDeleted()) {
+            embeddingIndex.removePost(event.getPostId());
+        } else {
+            embeddingIndex.reindexPost(event.getPostId());
+        }
+        similarPostService.evictPost(event.getPostId());
+    }
+}
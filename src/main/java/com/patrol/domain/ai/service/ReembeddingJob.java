@@ -0,0 +1,207 @@
+package com.patrol.domain.ai.service;
+
+import com.patrol.domain.ai.cache.EmbeddingCache;
+import com.patrol.domain.ai.entity.AiImage;
+import com.patrol.domain.ai.entity.AiJobCheckpoint;
+import com.patrol.domain.ai.index.EmbeddingIndex;
+import com.patrol.domain.ai.repository.AiImageRepository;
+import com.patrol.domain.ai.repository.AiJobCheckpointRepository;
+import com.patrol.domain.ai.repository.ExtractionTarget;
+import com.patrol.domain.ai.resilience.AiServiceUnavailableException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 임베딩 모델을 교체했을 때 현재 버전이 아닌 임베딩을 다시 추출하는 백필 작업.
+ * ID 순으로 청크를 읽어 최대 maxInFlight 개씩 동시에 추출하고, 초당 처리량을 ratePerSecond 이하로 제한한다.
+ * 진행 위치는 ai_job_checkpoint 에 버전별로 저장하며 AI 서버 장애 시 해당 청크부터 다음 실행에서 이어간다.
+ * 이미지 문제 등으로 실패한 이미지는 건너뛰고 계속 진행하되, 저장하는 진행 위치는 처음 실패한 이미지 앞에 머물러
+ * 다음 실행에서 다시 시도한다 (성공한 이미지는 현재 버전이 되어 다시 읽히지 않는다).
+ * 재추출이 끝난 이미지는 embeddedAt 이 갱신되므로 재매칭 스윕이 새 버전끼리 다시 비교한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReembeddingJob {
+    private static final String JOB_NAME_PREFIX = "reembed-";
+
+    private final AiImageRepository aiImageRepository;
+    private final AiJobCheckpointRepository checkpointRepository;
+    private final AiImageService aiImageService;
+    private final AiClient aiClient;
+    private final EmbeddingCache embeddingCache;
+    private final EmbeddingIndex embeddingIndex;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${app.embedding.model-version:v1}")
+    private String modelVersion;
+
+    @Value("${app.embedding.reembed.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.embedding.reembed.chunk-size:50}")
+    private int chunkSize;
+
+    @Value("${app.embedding.reembed.max-in-flight:4}")
+    private int maxInFlight;
+
+    @Value("${app.embedding.reembed.rate-per-second:2.0}")
+    private double ratePerSecond;
+
+    @Scheduled(fixedDelayString = "${app.embedding.reembed.interval-ms:600000}",
+            initialDelayString = "${app.embedding.reembed.initial-delay-ms:120000}")
+    public void run() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+
+        String jobName = JOB_NAME_PREFIX + modelVersion;
+        long startTime = System.currentTimeMillis();
+        int processed = 0;
+        try {
+            AiJobCheckpoint checkpoint = checkpointRepository.findById(jobName)
+                    .orElseGet(() -> new AiJobCheckpoint(jobName));
+            long cursor = checkpoint.getLastId();
+            // 이번 실행에서 처음 실패한 이미지 바로 앞의 위치 (실패가 없으면 null)
+            Long retryFrom = null;
+
+            while (true) {
+                List<ExtractionTarget> targets = aiImageRepository.findStaleEmbeddingsAfter(
+                        modelVersion, cursor, PageRequest.of(0, chunkSize));
+                if (targets.isEmpty()) {
+                    break;
+                }
+
+                long chunkStart = System.currentTimeMillis();
+                ChunkResult result = reembedChunk(targets);
+                if (retryFrom == null && !result.failedIds().isEmpty()) {
+                    retryFrom = positionBefore(targets, result.failedIds(), cursor);
+                }
+                if (!result.completed()) {
+                    log.warn("⏸️ AI 서버 사용 불가, 재추출 중단 후 다음 실행에서 이어감: lastId={}", checkpoint.getLastId());
+                    break;
+                }
+
+                cursor = targets.get(targets.size() - 1).id();
+                checkpoint.advance(LocalDateTime.now(), retryFrom != null ? retryFrom : cursor);
+                checkpoint = checkpointRepository.save(checkpoint);
+                processed += targets.size();
+                log.info("🔄 임베딩 재추출 진행 중 ({}): lastId={}, 실패 {}건", modelVersion, cursor, result.failedIds().size());
+
+                throttle(targets.size(), System.currentTimeMillis() - chunkStart);
+            }
+
+            if (processed > 0) {
+                log.info("✅ 임베딩 재추출 완료 ({}): {}건, {}ms", modelVersion, processed, System.currentTimeMillis() - startTime);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("🚨 임베딩 재추출 실패 ({}건 처리 후 중단): {}", processed, e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // completed: AI 서버 장애 없이 끝까지 처리했는지 (성공한 결과는 어느 경우든 저장됨)
+    // failedIds: AI 서버 장애 외 이유(동시 호출 상한 초과, 이미지 저장소 장애 포함)로 실패한 이미지, 다음 실행에서 다시 시도한다
+    private record ChunkResult(boolean completed, Set<Long> failedIds) {
+    }
+
+    // 청크를 추출해 저장한다
+    private ChunkResult reembedChunk(List<ExtractionTarget> targets) throws InterruptedException {
+        Map<Long, ExtractedEmbedding> embeddings = new LinkedHashMap<>();
+        Map<ExtractionTarget, Future<ExtractedEmbedding>> futures = new LinkedHashMap<>();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (ExtractionTarget target : targets) {
+                ExtractedEmbedding cached = embeddingCache.get(target.contentHash());
+                if (cached != null) {
+                    embeddings.put(target.id(), cached);
+                    continue;
+                }
+
+                futures.put(target, executor.submit(() -> {
+                    inFlight.acquire();
+                    try {
+                        ExtractedEmbedding extracted = ExtractedEmbedding.fromJson(aiClient.extractEmbeddingAndFeaturesFromUrl(
+                                target.path(), target.status(), target.animalType()));
+                        embeddingCache.put(target.contentHash(), extracted);
+                        return extracted;
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+        }
+
+        boolean completed = true;
+        Set<Long> failedIds = new HashSet<>();
+        for (Map.Entry<ExtractionTarget, Future<ExtractedEmbedding>> entry : futures.entrySet()) {
+            try {
+                ExtractedEmbedding extracted = entry.getValue().get();
+                if (extracted != null) {
+                    embeddings.put(entry.getKey().id(), extracted);
+                } else {
+                    failedIds.add(entry.getKey().id());
+                    log.error("🚨 임베딩 재추출 실패, 기존 임베딩 유지: imageId={}", entry.getKey().id());
+                }
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof AiServiceUnavailableException) {
+                    completed = false;
+                } else {
+                    failedIds.add(entry.getKey().id());
+                    log.error("🚨 임베딩 재추출 실패, 기존 임베딩 유지: imageId={}, {}",
+                            entry.getKey().id(), e.getCause().getMessage());
+                }
+            }
+        }
+
+        if (!embeddings.isEmpty()) {
+            List<AiImage> saved = aiImageService.saveEmbeddings(embeddings);
+            saved.forEach(embeddingIndex::upsert);
+        }
+        return new ChunkResult(completed, failedIds);
+    }
+
+    // ID 순으로 정렬된 청크에서 처음 실패한 이미지 바로 앞의 ID (청크 첫 이미지면 청크 시작 위치)
+    private static long positionBefore(List<ExtractionTarget> targets, Set<Long> failedIds, long chunkStart) {
+        long position = chunkStart;
+        for (ExtractionTarget target : targets) {
+            if (failedIds.contains(target.id())) {
+                return position;
+            }
+            position = target.id();
+        }
+        return position;
+    }
+
+    // 청크 처리 시간이 chunkSize / ratePerSecond 보다 짧으면 남은 시간만큼 쉰다
+    private void throttle(int processed, long elapsedMs) throws InterruptedException {
+        if (ratePerSecond <= 0) {
+            return;
+        }
+        long minimumMs = (long) (processed * 1000 / ratePerSecond);
+        if (elapsedMs < minimumMs) {
+            Thread.sleep(minimumMs - elapsedMs);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.patrol.domain.ai.service;
+
+import com.patrol.domain.ai.entity.AiJobCheckpoint;
+import com.patrol.domain.ai.repository.AiImageRepository;
+import com.patrol.domain.ai.repository.AiJobCheckpointRepository;
+import com.patrol.domain.ai.repository.EmbeddedImageRef;
+import com.patrol.domain.lostFoundPost.entity.PostStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 새로 임베딩된 이미지를 반대 상태의 이미지와 주기적으로 다시 비교한다.
+ * 실시간 매칭 시점에 상대 이미지의 임베딩이 아직 없어 놓친 쌍을 찾기 위한 작업으로,
+ * (embeddedAt, id) 워터마크를 ai_job_checkpoint 에 저장해 재시작 후에도 이어서 처리한다.
+ * 이미 매칭된 쌍은 ai_match 기록으로 걸러지므로 실시간 매칭과 겹쳐도 댓글이 중복되지 않는다.
+ */
+@Slf4j
+@Component
+public class RematchSweepJob {
+    private static final String JOB_NAME = "rematch-sweep";
+    private static final List<PostStatus> ACTIVE_STATUSES = List.of(PostStatus.FINDING, PostStatus.SIGHTED);
+
+    private final AiImageRepository aiImageRepository;
+    private final AiJobCheckpointRepository checkpointRepository;
+    private final ImageProcessingService imageProcessingService;
+    private final ExecutorService workers;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${app.similarity.rematch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.similarity.rematch.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${app.similarity.rematch.max-chunks-per-run:50}")
+    private int maxChunksPerRun;
+
+    // 커밋이 늦게 끝난 행을 건너뛰지 않도록 최근 lagSeconds 이내에 임베딩된 이미지는 다음 실행으로 미룬다
+    @Value("${app.similarity.rematch.lag-seconds:60}")
+    private long lagSeconds;
+
+    public RematchSweepJob(AiImageRepository aiImageRepository,
+                           AiJobCheckpointRepository checkpointRepository,
+                           ImageProcessingService imageProcessingService,
+                           @Value("${app.similarity.rematch.threads:0}") int threads) {
+        this.aiImageRepository = aiImageRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.imageProcessingService = imageProcessingService;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.workers = Executors.newFixedThreadPool(poolSize, Thread.ofPlatform()
+                .name("rematch-sweep-", 0)
+                .daemon(true)
+                .factory());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${app.similarity.rematch.interval-ms:300000}",
+            initialDelayString = "${app.similarity.rematch.initial-delay-ms:60000}")
+    public void sweep() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        int processed = 0;
+        try {
+            AiJobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                    .orElseGet(() -> new AiJobCheckpoint(JOB_NAME));
+            LocalDateTime before = LocalDateTime.now().minusSeconds(lagSeconds);
+
+            for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+                List<EmbeddedImageRef> images = aiImageRepository.findEmbeddedSince(
+                        checkpoint.getLastProcessedAt(), checkpoint.getLastId(), before,
+                        ACTIVE_STATUSES, PageRequest.of(0, chunkSize));
+                if (images.isEmpty()) {
+                    break;
+                }
+
+                // 청크 안의 게시글은 병렬로 비교하고, 모두 끝난 뒤에 워터마크를 옮긴다
+                CompletableFuture.allOf(images.stream()
+                        .map(EmbeddedImageRef::postId)
+                        .distinct()
+                        .map(postId -> CompletableFuture.runAsync(
+                                () -> imageProcessingService.processPostSimilarity(postId), workers))
+                        .toArray(CompletableFuture[]::new)
+                ).join();
+
+                EmbeddedImageRef last = images.get(images.size() - 1);
+                checkpoint.advance(last.embeddedAt(), last.id());
+                checkpoint = checkpointRepository.save(checkpoint);
+                processed += images.size();
+            }
+
+            if (processed > 0) {
+                log.info("🔁 재매칭 스윕 완료: {}건, {}ms", processed, System.currentTimeMillis() - startTime);
+            }
+        } catch (Exception e) {
+            log.error("🚨 재매칭 스윕 실패 ({}건 처리 후 중단): {}", processed, e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.patrol.domain.ai.service;
+
+import com.patrol.api.lostFoundPost.dto.LostFoundPostResponseDto;
+import com.patrol.api.lostFoundPost.dto.SimilarPostResponseDto;
+import com.patrol.domain.ai.index.EmbeddingIndex;
+import com.patrol.domain.ai.similarity.CandidateTimeWindow;
+import com.patrol.domain.lostFoundPost.entity.LostFoundPost;
+import com.patrol.domain.lostFoundPost.entity.PostStatus;
+import com.patrol.domain.lostFoundPost.repository.LostFoundPostRepository;
+import com.patrol.domain.lostFoundPost.service.LostFoundPostService;
+import com.patrol.global.error.ErrorCode;
+import com.patrol.global.exception.CustomException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 게시글과 이미지가 비슷한 반대 상태(실종 <-> 목격) 게시글 상위 K개.
+ * 후보는 임베딩 인덱스에서 찾고 결과는 게시글별 LRU 캐시에 둔다.
+ * 캐시는 결과에 영향을 주는 파티션(질의 게시글 이미지의 파티션과 비교 대상 파티션)의 세대와 함께 저장해,
+ * 그 파티션에 새 임베딩이 반영됐을 때만 다음 조회에서 다시 계산한다.
+ * 게시글이 수정/삭제되면 그 게시글의 결과와 그 게시글이 포함된 결과를 바로 버린다.
+ */
+@Slf4j
+@Service
+public class SimilarPostService {
+    private final EmbeddingIndex embeddingIndex;
+    private final LostFoundPostRepository lostFoundPostRepository;
+    private final LostFoundPostService lostFoundPostService;
+    private final CandidateTimeWindow candidateTimeWindow;
+    private final double candidateThreshold;
+    private final Map<CacheKey, CachedResult> cache;
+
+    private record CacheKey(Long postId, int k) {
+    }
+
+    private record CachedResult(PostStatus targetStatus, Map<EmbeddingIndex.PartitionKey, Long> generations,
+                                List<SimilarPostResponseDto> posts) {
+    }
+
+    public SimilarPostService(EmbeddingIndex embeddingIndex,
+                              LostFoundPostRepository lostFoundPostRepository,
+                              LostFoundPostService lostFoundPostService,
+                              CandidateTimeWindow candidateTimeWindow,
+                              @Value("${app.similarity.candidate-threshold:0.75}") double candidateThreshold,
+                              @Value("${app.similarity.similar-posts.cache-size:1000}") int cacheSize) {
+        this.embeddingIndex = embeddingIndex;
+        this.lostFoundPostRepository = lostFoundPostRepository;
+        this.lostFoundPostService = lostFoundPostService;
+        this.candidateTimeWindow = candidateTimeWindow;
+        this.candidateThreshold = candidateThreshold;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CachedResult> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    public List<SimilarPostResponseDto> getSimilarPosts(Long postId, int k) {
+        CacheKey key = new CacheKey(postId, k);
+        CachedResult cached = cache.get(key);
+        if (cached != null
+                && cached.generations().equals(embeddingIndex.searchGenerations(postId, cached.targetStatus()))) {
+            return cached.posts();
+        }
+
+        LostFoundPost post = lostFoundPostRepository.findById(postId)
+                .orElseThrow(() -> new CustomException(ErrorCode.POST_NOT_FOUND));
+        if (post.getStatus() != PostStatus.FINDING && post.getStatus() != PostStatus.SIGHTED) {
+            return List.of();
+        }
+        if (!embeddingIndex.isReady()) {
+            // 인덱스 적재 중에는 캐시하지 않는다
+            return List.of();
+        }
+
+        PostStatus oppositeStatus = (post.getStatus() == PostStatus.FINDING) ? PostStatus.SIGHTED : PostStatus.FINDING;
+        // 검색 전에 읽어 두어야 검색 도중 반영된 변경이 다음 조회에서 다시 계산된다
+        Map<EmbeddingIndex.PartitionKey, Long> generations = embeddingIndex.searchGenerations(postId, oppositeStatus);
+        List<EmbeddingIndex.PostMatch> matches = embeddingIndex.searchPosts(postId, oppositeStatus, k, candidateThreshold,
+                candidateTimeWindow.rangeFor(post.getStatus(), post.getEventAt()));
+
+        List<SimilarPostResponseDto> posts = List.of();
+        if (!matches.isEmpty()) {
+            Map<Long, LostFoundPostResponseDto> dtos = lostFoundPostService.getLostFoundPostsByIds(
+                            matches.stream().map(EmbeddingIndex.PostMatch::postId).toList()).stream()
+                    .collect(Collectors.toMap(LostFoundPostResponseDto::getId, Function.identity()));
+            posts = matches.stream()
+                    .filter(match -> dtos.containsKey(match.postId()))
+                    .map(match -> new SimilarPostResponseDto(dtos.get(match.postId()), match.similarity()))
+                    .toList();
+        }
+
+        cache.put(key, new CachedResult(oppositeStatus, generations, posts));
+        log.info("🔍 유사 게시글 계산: postId={}, {}개", postId, posts.size());
+        return posts;
+    }
+
+    /**
+     * 수정/삭제된 게시글의 결과와, 그 게시글이 유사 게시글로 들어 있는 결과를 캐시에서 지운다.
+     */
+    public void evictPost(Long postId) {
+        synchronized (cache) {
+            cache.entrySet().removeIf(entry -> entry.getKey().postId().equals(postId)
+                    || entry.getValue().posts().stream().anyMatch(similar -> postId.equals(similar.getPost().getId())));
+        }
+    }
+}
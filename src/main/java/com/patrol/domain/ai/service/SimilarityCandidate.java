@@ -0,0 +1,10 @@
+package com.patrol.domain.ai.service;
+
+import com.patrol.domain.ai.entity.AiImage;
+
+public record SimilarityCandidate(Long id, float[] embedding) {
+
+    public static SimilarityCandidate from(AiImage aiImage) {
+        return new SimilarityCandidate(aiImage.getId(), aiImage.getEmbeddingValues());
+    }
+}
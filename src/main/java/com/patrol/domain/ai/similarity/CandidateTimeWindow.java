@@ -0,0 +1,47 @@
+package com.patrol.domain.ai.similarity;
+
+import com.patrol.domain.lostFoundPost.entity.PostStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 매칭 후보의 분실/발견 시각 범위.
+ * 목격(SIGHTED)은 분실 이후에 일어나므로, 분실 글은 분실 시각부터 days-after-loss 일 뒤까지의 목격 글과,
+ * 목격 글은 그 이전 days-after-loss 일 동안의 분실 글과만 비교한다.
+ * 시각을 대충 적는 경우가 많아 반대 방향으로 tolerance-days 만큼 여유를 둔다.
+ */
+@Component
+public class CandidateTimeWindow {
+
+    @Value("${app.similarity.time-window.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.similarity.time-window.days-after-loss:60}")
+    private int daysAfterLoss;
+
+    @Value("${app.similarity.time-window.tolerance-days:3}")
+    private int toleranceDays;
+
+    // 시각을 모르는 후보는 제외하지 않는다
+    public record Range(LocalDateTime from, LocalDateTime to) {
+        public boolean contains(LocalDateTime time) {
+            return time == null || (!time.isBefore(from) && !time.isAfter(to));
+        }
+    }
+
+    /**
+     * 질의 게시글의 상태와 시각으로 비교할 후보 시각 범위를 구한다 (제한하지 않으면 null).
+     */
+    public Range rangeFor(PostStatus queryStatus, LocalDateTime queryEventAt) {
+        if (!enabled || queryStatus == null || queryEventAt == null) {
+            return null;
+        }
+        return switch (queryStatus) {
+            case FINDING -> new Range(queryEventAt.minusDays(toleranceDays), queryEventAt.plusDays(daysAfterLoss));
+            case SIGHTED -> new Range(queryEventAt.minusDays(daysAfterLoss), queryEventAt.plusDays(toleranceDays));
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package com.patrol.domain.ai.similarity;
+
+public class ScalarVectorOps implements VectorOps {
+
+    @Override
+    public double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += (double) a[i] * b[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,74 @@
+package com.patrol.domain.ai.similarity;
+
+import com.patrol.domain.ai.service.SimilarityCandidate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * ai/main.py 의 /compare-embeddings 를 옮긴 로컬 유사도 계산기.
+ * 임베딩의 코사인 유사도 (torch.nn.functional.cosine_similarity, eps=1e-8) 만 쓰며, features 는 점수에 넣지 않는다.
+ * app.similarity.threshold 는 이 점수 기준이다.
+ */
+@Slf4j
+@Component
+public class SimilarityEngine {
+    private static final double COSINE_EPS = 1e-8;
+    private static final int PARALLEL_THRESHOLD = 256;
+
+    private final VectorOps vectorOps;
+
+    @Autowired
+    public SimilarityEngine(@Value("${app.similarity.simd:true}") boolean simdEnabled) {
+        this(selectVectorOps(simdEnabled));
+    }
+
+    public SimilarityEngine(VectorOps vectorOps) {
+        this.vectorOps = vectorOps;
+        log.info("✅ 유사도 계산기 초기화: {}", vectorOps.getClass().getSimpleName());
+    }
+
+    // 길이가 다르거나 한쪽이 없으면 0
+    public double cosine(float[] embedding1, float[] embedding2) {
+        return cosine(embedding1, norm(embedding1), embedding2);
+    }
+
+    // 질의 벡터의 노름은 한 번만 계산하고, 후보가 많으면 코어 수만큼 병렬로 계산한다
+    public double[] scoreAgainst(float[] queryEmbedding, List<SimilarityCandidate> candidates) {
+        double[] scores = new double[candidates.size()];
+        double queryNorm = norm(queryEmbedding);
+
+        IntStream range = IntStream.range(0, scores.length);
+        if (scores.length >= PARALLEL_THRESHOLD) {
+            range = range.parallel();
+        }
+        range.forEach(i -> scores[i] = cosine(queryEmbedding, queryNorm, candidates.get(i).embedding()));
+        return scores;
+    }
+
+    private double cosine(float[] queryEmbedding, double queryNorm, float[] embedding) {
+        if (queryEmbedding == null || embedding == null || queryEmbedding.length != embedding.length) {
+            return 0;
+        }
+        double denominator = Math.max(queryNorm, COSINE_EPS) * Math.max(norm(embedding), COSINE_EPS);
+        return vectorOps.dot(queryEmbedding, embedding) / denominator;
+    }
+
+    private double norm(float[] vector) {
+        return vector != null ? Math.sqrt(vectorOps.squaredNorm(vector)) : 0;
+    }
+    private static VectorOps selectVectorOps(boolean simdEnabled) {
+        if (simdEnabled && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return new SimdVectorOps();
+            } catch (Throwable e) {
+                log.warn("⚠️ Vector API 사용 불가, 스칼라 연산으로 대체: {}", e.getMessage());
+            }
+        }
+        return new ScalarVectorOps();
+    }
+}
@@ -0,0 +1,11 @@
+package com.patrol.domain.ai.similarity;
+
+// 유사도 계산에 필요한 벡터 연산 (SIMD / 스칼라 구현 교체용)
+public interface VectorOps {
+
+    double dot(float[] a, float[] b);
+
+    default double squaredNorm(float[] a) {
+        return dot(a, a);
+    }
+}
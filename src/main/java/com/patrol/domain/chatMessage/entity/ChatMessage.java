@@ -15,6 +15,9 @@ import lombok.experimental.SuperBuilder;
 @Setter
 @SuperBuilder
 @NoArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_chat_message_room_id", columnList = "chatRoom_id, id")
+})
 public class ChatMessage extends BaseEntity {
 
     private String content;
@@ -3,27 +3,42 @@ package com.patrol.domain.chatMessage.repository;
 import com.patrol.domain.chatMessage.entity.ChatMessage;
 import com.patrol.domain.chatRoom.entity.ChatRoom;
 import com.patrol.domain.member.member.entity.Member;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface ChatMessageRepository extends JpaRepository< ChatMessage, Long> {
-    List<ChatMessage> findAllByChatRoom(ChatRoom chatRoom);
+    // (chatRoom_id, id) 인덱스를 역순으로 읽는 키셋 페이지, 발신자/수신자는 함께 가져온다
+    @Query("""
+    SELECT m FROM ChatMessage m
+    LEFT JOIN FETCH m.sender
+    LEFT JOIN FETCH m.receiver
+    WHERE m.chatRoom = :chatRoom AND m.id < :beforeId
+    ORDER BY m.id DESC
+""")
+    List<ChatMessage> findPageBefore(
+            @Param("chatRoom") ChatRoom chatRoom,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable);
 
-    List<ChatMessage> findAllByChatRoomAndReceiverAndIsReadFalse(ChatRoom chatRoom, Member loginUser);
+    // lastSeenId 까지의 안 읽은 메시지를 한 번의 UPDATE 로 읽음 처리하고 처리한 개수를 반환
+    @Modifying
+    @Query("UPDATE ChatMessage m SET m.isRead = true " +
+            "WHERE m.chatRoom = :chatRoom AND m.receiver = :receiver AND m.isRead = false AND m.id <= :lastSeenId")
+    int markAsReadUpTo(@Param("chatRoom") ChatRoom chatRoom,
+                       @Param("receiver") Member receiver,
+                       @Param("lastSeenId") Long lastSeenId);
 
     @Query("SELECT m FROM ChatMessage m " +
             "WHERE m.id = (SELECT MAX(m2.id) FROM ChatMessage m2 WHERE m2.chatRoom = :chatRoom)")
     ChatMessage findLatestMessageForChatRoom(@Param("chatRoom") ChatRoom chatRoom);
 
-    @Query("SELECT m.chatRoom.id as chatRoomId, COUNT(m) as unreadCount " +
-            "FROM ChatMessage m " +
-            "WHERE m.chatRoom IN :chatRooms AND m.receiver.id = :userId AND m.isRead = false " +
-            "GROUP BY m.chatRoom.id")
-    List<Object[]> countUnreadMessagesForChatRoomsByReceiverId(
-            @Param("chatRooms") List<ChatRoom> chatRooms,
-            @Param("userId") Long userId
-    );
+    @Query("SELECT m.receiver.id, COUNT(m) FROM ChatMessage m " +
+            "WHERE m.chatRoom = :chatRoom AND m.isRead = false " +
+            "GROUP BY m.receiver.id")
+    List<Object[]> countUnreadMessagesByReceiver(@Param("chatRoom") ChatRoom chatRoom);
 }
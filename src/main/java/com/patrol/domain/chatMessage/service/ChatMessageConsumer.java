@@ -2,19 +2,22 @@ package com.patrol.domain.chatMessage.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.patrol.api.chatMessage.dto.ReadReceiptMessage;
 import com.patrol.api.chatMessage.dto.ResponseMessage;
 import com.patrol.domain.notification.service.FCMNotificationService;
+import com.patrol.global.webSocket.StompDestinations;
+import com.patrol.global.webSocket.StompFanout;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
 public class ChatMessageConsumer {
-    private final SimpMessagingTemplate messagingTemplate;
+    private final StompFanout stompFanout;
+    private final StompDestinations stompDestinations;
     private final Logger logger = LoggerFactory.getLogger(ChatMessageConsumer.class);
     private final FCMNotificationService fcmNotificationService;
     private final ObjectMapper objectMapper = new ObjectMapper();
@@ -24,8 +27,8 @@ public class ChatMessageConsumer {
         try {
             objectMapper.registerModule(new JavaTimeModule());
             ResponseMessage message = objectMapper.readValue(messageJson, ResponseMessage.class);
-            messagingTemplate.convertAndSend(
-                    "/queue/chat/" + message.getRoomIdentifier() ,
+            stompFanout.send(
+                    stompDestinations.chatRoom(message.getRoomIdentifier()),
                     message
             );
         } catch (Exception e) {
@@ -33,6 +36,21 @@ public class ChatMessageConsumer {
         }
     }
 
+    // 읽음 확인은 채팅방 목적지 아래 별도 목적지로 보내 메시지 구독과 섞이지 않게 한다
+    @KafkaListener(topics = "chat-read-receipts", groupId = "chat-group")
+    public void consumeReadReceipt(String receiptJson) {
+        try {
+            objectMapper.registerModule(new JavaTimeModule());
+            ReadReceiptMessage receipt = objectMapper.readValue(receiptJson, ReadReceiptMessage.class);
+            stompFanout.send(
+                    stompDestinations.readReceipt(receipt.getRoomIdentifier()),
+                    receipt
+            );
+        } catch (Exception e) {
+            logger.error("Error processing read receipt: ", e);
+        }
+    }
+
     @KafkaListener(topics = "offline-notifications", groupId = "notification-group")
     public void consumeRealTimeChatAlarm(String messageJson) {
         try {
@@ -2,6 +2,8 @@ package com.patrol.domain.chatMessage.service;
 
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patrol.api.chatMessage.dto.ChatMessagePageResponse;
+import com.patrol.api.chatMessage.dto.ReadReceiptMessage;
 import com.patrol.api.chatMessage.dto.RequestMessage;
 import com.patrol.api.chatMessage.dto.ResponseMessage;
 import com.patrol.api.image.dto.ImageResponseDto;
@@ -26,7 +28,8 @@ import com.patrol.global.storage.FileStorageHandler;
 import com.patrol.global.storage.FileUploadRequest;
 import com.patrol.global.storage.FileUploadResult;
 import com.patrol.global.storage.NcpObjectStorageService;
-import com.patrol.global.webSocket.WebSocketEventListener;
+import com.patrol.global.webSocket.WebSocketPresenceRegistry;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -36,6 +39,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -52,7 +56,7 @@ public class ChatMessageService {
     private final ObjectMapper objectMapper;
     private final NcpObjectStorageService ncpObjectStorageService;
     private final KafkaTemplate<String, Object> kafkaTemplate;
-    private final WebSocketEventListener webSocketEventListener;
+    private final WebSocketPresenceRegistry presenceRegistry;
 
     private static final Logger logger = LoggerFactory.getLogger(ChatMessageService.class);
 
@@ -157,6 +161,7 @@ public class ChatMessageService {
                     .isRead(false)
                     .build();
             chatMessageRepository.save(chatMessage);
+            updateRoomSummary(chatRoom, chatMessage, sender, receiver);
 
             Long postIdValue;
             if (post instanceof LostFoundPost) {
@@ -182,7 +187,7 @@ public class ChatMessageService {
             objectMapper.registerModule(new JavaTimeModule());
             String messageJson = objectMapper.writeValueAsString(messageDTO);
 
-            if (webSocketEventListener.isSubscribedToRoom(receiverId, chatRoom.getRoomIdentifier())) {
+            if (presenceRegistry.isSubscribedToRoom(receiverId, chatRoom.getRoomIdentifier())) {
                 logger.info("실시간 채팅으로 메시지 전송");
                 kafkaTemplate.send("real-time-chat-messages", messageJson);
             } else {
@@ -310,6 +315,7 @@ public class ChatMessageService {
                         .build();
 
                 chatMessageRepository.save(chatMessage);
+                updateRoomSummary(chatRoom, chatMessage, loginUser, receiver);
 
                 Long postId = chatRoom.getPostId();
 
@@ -327,7 +333,7 @@ public class ChatMessageService {
 
                 String receiverId = String.valueOf(receiver.getId());
 
-                if (webSocketEventListener.isSubscribedToRoom(receiverId, chatRoom.getRoomIdentifier())) {
+                if (presenceRegistry.isSubscribedToRoom(receiverId, chatRoom.getRoomIdentifier())) {
                     logger.info("실시간 채팅으로 메시지 전송");
                     ObjectMapper objectMapper = new ObjectMapper();
                     objectMapper.registerModule(new JavaTimeModule());
@@ -360,7 +366,11 @@ public class ChatMessageService {
         }
     }
 
-    public RsData<Object> getChatMessages(String identifier, Member loginUser) {
+    /**
+     * beforeId 보다 오래된 메시지를 최신 것부터 limit 개 가져와 오래된 순으로 반환한다.
+     * beforeId 가 없으면 가장 최근 페이지다.
+     */
+    public RsData<Object> getChatMessages(String identifier, Member loginUser, Long beforeId, int limit) {
         try {
             Optional<ChatRoom> chatRoomOptional = chatRoomRepository.findByRoomIdentifier(identifier);
             if (chatRoomOptional.isEmpty()) {
@@ -374,29 +384,44 @@ public class ChatMessageService {
                 return new RsData<>("403", "해당 채팅방에 접근 권한이 없습니다.");
             }
 
-            List<ChatMessage> chatMessages = chatMessageRepository.findAllByChatRoom(chatRoom);
+            // 한 건 더 읽어 이전 페이지가 있는지 판단
+            List<ChatMessage> chatMessages = chatMessageRepository.findPageBefore(
+                    chatRoom, beforeId != null ? beforeId : Long.MAX_VALUE, PageRequest.of(0, limit + 1));
+            boolean hasMore = chatMessages.size() > limit;
+            if (hasMore) {
+                chatMessages = chatMessages.subList(0, limit);
+            }
+
+            Long postId = chatRoom.getPostId();
             List<ResponseMessage> responseDtos = chatMessages.stream()
                     .map(chatMessage -> ResponseMessage.builder()
                             .id(chatMessage.getId())
                             .content(chatMessage.getContent())
                             .sender(new MemberResponseDto(chatMessage.getSender()))
                             .receiver(new MemberResponseDto(chatMessage.getReceiver()))
-                            .postId(chatMessage.getChatRoom().getPostId())
+                            .postId(postId)
                             .timestamp(chatMessage.getCreatedAt())
                             .isRead(chatMessage.isRead())
                             .messageType(chatMessage.getMessageType())
                             .build())
                     .collect(Collectors.toList());
+            Collections.reverse(responseDtos);
 
-            return new RsData<>("200", "채팅 메시지 조회 성공", responseDtos);
+            Long nextBeforeId = responseDtos.isEmpty() ? null : responseDtos.get(0).getId();
+            return new RsData<>("200", "채팅 메시지 조회 성공",
+                    new ChatMessagePageResponse(responseDtos, hasMore, nextBeforeId));
         } catch (Exception e) {
             logger.error("Error retrieving messages: ", e);
             return new RsData<>("500", "서버 내부 오류가 발생했습니다.");
         }
     }
 
+    /**
+     * lastSeenId 까지 받은 메시지를 한 번에 읽음 처리하고, 읽은 메시지가 있으면 상대방에게 읽음 확인을 보낸다.
+     * lastSeenId 가 없으면 채팅방의 마지막 메시지까지 읽은 것으로 본다.
+     */
     @Transactional
-    public RsData<Object> markMessagesAsRead(String identifier, Member loginUser) {
+    public RsData<Object> markMessagesAsRead(String identifier, Member loginUser, Long lastSeenId) {
         try {
             Optional<ChatRoom> chatRoomOptional = chatRoomRepository.findByRoomIdentifier(identifier);
             if (chatRoomOptional.isEmpty()) {
@@ -410,17 +435,34 @@ public class ChatMessageService {
                 return new RsData<>("403", "해당 채팅방에 접근 권한이 없습니다.");
             }
 
-            List<ChatMessage> unreadMessages = chatMessageRepository.findAllByChatRoomAndReceiverAndIsReadFalse(
-                    chatRoom, loginUser);
+            Long upToId = lastSeenId != null ? lastSeenId : chatRoom.getLastMessageId();
+            int readCount = chatMessageRepository.markAsReadUpTo(
+                    chatRoom, loginUser, upToId != null ? upToId : Long.MAX_VALUE);
 
-            for (ChatMessage message : unreadMessages) {
-                message.setRead(true);
+            if (readCount > 0) {
+                chatRoomRepository.decrementUnreadCount(chatRoom.getId(), loginUser.getId(), readCount);
+
+                ReadReceiptMessage receipt = ReadReceiptMessage.builder()
+                        .roomIdentifier(chatRoom.getRoomIdentifier())
+                        .readerId(loginUser.getId())
+                        .lastReadMessageId(upToId)
+                        .readCount(readCount)
+                        .readAt(LocalDateTime.now())
+                        .build();
+                kafkaTemplate.send("chat-read-receipts", objectMapper.writeValueAsString(receipt));
             }
 
-            return new RsData<>("200", "메시지 읽음 처리 완료");
+            return new RsData<>("200", "메시지 읽음 처리 완료", readCount);
         } catch (Exception e) {
             logger.error("Error marking messages as read: ", e);
             return new RsData<>("500", "서버 내부 오류가 발생했습니다.");
         }
     }
+
+    // 채팅방 목록에 보일 마지막 메시지와 수신자의 안 읽은 메시지 수를 메시지 저장과 같은 트랜잭션에서 갱신
+    private void updateRoomSummary(ChatRoom chatRoom, ChatMessage chatMessage, Member sender, Member receiver) {
+        chatRoomRepository.updateLastMessage(chatRoom.getId(), chatMessage.getId(), chatMessage.getCreatedAt(),
+                chatMessage.getContent(), chatMessage.getMessageType(), sender.getId());
+        chatRoomRepository.incrementUnreadCount(chatRoom.getId(), receiver.getId());
+    }
 }
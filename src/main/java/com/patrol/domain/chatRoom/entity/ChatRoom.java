@@ -2,6 +2,7 @@ package com.patrol.domain.chatRoom.entity;
 
 import com.patrol.domain.Postable.Postable;
 import com.patrol.domain.animalCase.entity.AnimalCase;
+import com.patrol.domain.chatMessage.entity.MessageType;
 import com.patrol.domain.lostFoundPost.entity.LostFoundPost;
 import com.patrol.domain.member.member.entity.Member;
 import com.patrol.global.jpa.BaseEntity;
@@ -10,6 +11,9 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
 
 
 @Getter
@@ -17,6 +21,10 @@ import lombok.experimental.SuperBuilder;
 @Entity
 @NoArgsConstructor
 @SuperBuilder
+@Table(indexes = {
+        @Index(name = "idx_chat_room_member1_last_message", columnList = "member1_id, last_message_at"),
+        @Index(name = "idx_chat_room_member2_last_message", columnList = "member2_id, last_message_at")
+})
 public class ChatRoom extends BaseEntity {
     private ChatRoomType type;
 
@@ -38,6 +46,31 @@ public class ChatRoom extends BaseEntity {
 
     private String roomIdentifier;
 
+    // 채팅방 목록용 마지막 메시지 요약과 멤버별 안 읽은 메시지 수 (ChatRoomRepository 의 원자적 UPDATE 로만 갱신)
+    @Column(name = "last_message_id")
+    private Long lastMessageId;
+
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+
+    @Column(name = "last_message_content")
+    private String lastMessageContent;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "last_message_type")
+    private MessageType lastMessageType;
+
+    @Column(name = "last_message_sender_id")
+    private Long lastMessageSenderId;
+
+    @ColumnDefault("0")
+    @Column(name = "member1_unread_count", nullable = false)
+    private int member1UnreadCount;
+
+    @ColumnDefault("0")
+    @Column(name = "member2_unread_count", nullable = false)
+    private int member2UnreadCount;
+
     public static String createRoomIdentifier(Postable post, Member member1, Member member2, ChatRoomType type) {
         Long postId = post.getId();
         Long smallerId = Math.min(member1.getId(), member2.getId());
@@ -54,6 +87,16 @@ public class ChatRoom extends BaseEntity {
         }
     }
 
+    public int getUnreadCountOf(Long memberId) {
+        if (member1 != null && member1.getId().equals(memberId)) {
+            return member1UnreadCount;
+        }
+        if (member2 != null && member2.getId().equals(memberId)) {
+            return member2UnreadCount;
+        }
+        return 0;
+    }
+
     public Long getPostId() {
         if (type == ChatRoomType.LOSTFOUND && lostFoundPost != null) {
             return lostFoundPost.getId();
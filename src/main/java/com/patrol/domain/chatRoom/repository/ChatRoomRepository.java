@@ -1,14 +1,18 @@
 package com.patrol.domain.chatRoom.repository;
 
 import com.patrol.domain.animalCase.entity.AnimalCase;
+import com.patrol.domain.chatMessage.entity.MessageType;
 import com.patrol.domain.chatRoom.entity.ChatRoom;
 import com.patrol.domain.chatRoom.entity.ChatRoomType;
 import com.patrol.domain.lostFoundPost.entity.LostFoundPost;
 import com.patrol.domain.member.member.entity.Member;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,7 +40,8 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
             "LEFT JOIN FETCH c.member2 m2 " +
             "LEFT JOIN FETCH c.lostFoundPost lfp " +
             "LEFT JOIN FETCH c.animalCase ac " +
-            "WHERE m1 = :member OR m2 = :member")
+            "WHERE m1 = :member OR m2 = :member " +
+            "ORDER BY c.lastMessageAt DESC NULLS LAST, c.id DESC")
     List<ChatRoom> findAllWithDetailsByMember(@Param("member") Member member);
 
     @Query("SELECT cr FROM ChatRoom cr " +
@@ -45,7 +50,58 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
             "LEFT JOIN FETCH cr.lostFoundPost lfp " +
             "LEFT JOIN FETCH cr.animalCase ac " +
             "WHERE (cr.member1 = :member OR cr.member2 = :member) " +
-            "AND cr.type = :type")
+            "AND cr.type = :type " +
+            "ORDER BY cr.lastMessageAt DESC NULLS LAST, cr.id DESC")
     List<ChatRoom> findAllWithDetailsByMemberAndType(@Param("member") Member member, @Param("type") ChatRoomType type);
 
+    // 동시에 보낸 메시지가 늦게 반영돼도 더 최신 메시지를 덮어쓰지 않도록 ID 로 비교
+    @Modifying
+    @Query("UPDATE ChatRoom cr SET cr.lastMessageId = :messageId, cr.lastMessageAt = :sentAt, " +
+            "cr.lastMessageContent = :content, cr.lastMessageType = :messageType, cr.lastMessageSenderId = :senderId " +
+            "WHERE cr.id = :roomId AND (cr.lastMessageId IS NULL OR cr.lastMessageId < :messageId)")
+    int updateLastMessage(@Param("roomId") Long roomId,
+                          @Param("messageId") Long messageId,
+                          @Param("sentAt") LocalDateTime sentAt,
+                          @Param("content") String content,
+                          @Param("messageType") MessageType messageType,
+                          @Param("senderId") Long senderId);
+
+    @Modifying
+    @Query("UPDATE ChatRoom cr SET " +
+            "cr.member1UnreadCount = cr.member1UnreadCount + CASE WHEN cr.member1.id = :receiverId THEN 1 ELSE 0 END, " +
+            "cr.member2UnreadCount = cr.member2UnreadCount + CASE WHEN cr.member2.id = :receiverId THEN 1 ELSE 0 END " +
+            "WHERE cr.id = :roomId")
+    int incrementUnreadCount(@Param("roomId") Long roomId, @Param("receiverId") Long receiverId);
+
+    // 읽음 처리한 개수만큼 차감 (그 사이 도착한 메시지 수는 남긴다)
+    @Modifying
+    @Query("UPDATE ChatRoom cr SET " +
+            "cr.member1UnreadCount = CASE WHEN cr.member1.id = :memberId " +
+            "THEN (CASE WHEN cr.member1UnreadCount > :count THEN cr.member1UnreadCount - :count ELSE 0 END) " +
+            "ELSE cr.member1UnreadCount END, " +
+            "cr.member2UnreadCount = CASE WHEN cr.member2.id = :memberId " +
+            "THEN (CASE WHEN cr.member2UnreadCount > :count THEN cr.member2UnreadCount - :count ELSE 0 END) " +
+            "ELSE cr.member2UnreadCount END " +
+            "WHERE cr.id = :roomId")
+    int decrementUnreadCount(@Param("roomId") Long roomId, @Param("memberId") Long memberId, @Param("count") int count);
+
+    // 백필 중에 실시간 경로가 먼저 요약을 채웠으면 덮어쓰지 않도록 마지막 메시지가 비어 있을 때만 반영
+    @Modifying
+    @Query("UPDATE ChatRoom cr SET cr.lastMessageId = :messageId, cr.lastMessageAt = :sentAt, " +
+            "cr.lastMessageContent = :content, cr.lastMessageType = :messageType, cr.lastMessageSenderId = :senderId, " +
+            "cr.member1UnreadCount = :member1UnreadCount, cr.member2UnreadCount = :member2UnreadCount " +
+            "WHERE cr.id = :roomId AND cr.lastMessageId IS NULL")
+    int backfillSummary(@Param("roomId") Long roomId,
+                        @Param("messageId") Long messageId,
+                        @Param("sentAt") LocalDateTime sentAt,
+                        @Param("content") String content,
+                        @Param("messageType") MessageType messageType,
+                        @Param("senderId") Long senderId,
+                        @Param("member1UnreadCount") int member1UnreadCount,
+                        @Param("member2UnreadCount") int member2UnreadCount);
+
+    // 요약 컬럼 추가 이전에 만들어진 채팅방 (마지막 메시지가 비어 있는 방)
+    @Query("SELECT cr FROM ChatRoom cr WHERE cr.id > :lastId AND cr.lastMessageId IS NULL ORDER BY cr.id ASC")
+    List<ChatRoom> findMissingSummaryAfter(@Param("lastId") Long lastId, Pageable pageable);
+
 }
@@ -3,8 +3,6 @@ package com.patrol.domain.chatRoom.service;
 import com.patrol.api.chatMessage.dto.ResponseMessage;
 import com.patrol.api.chatRoom.dto.ChatRoomResponseDto;
 import com.patrol.api.member.member.dto.MemberResponseDto;
-import com.patrol.domain.chatMessage.entity.ChatMessage;
-import com.patrol.domain.chatMessage.repository.ChatMessageRepository;
 import com.patrol.domain.chatRoom.entity.ChatRoom;
 import com.patrol.domain.chatRoom.entity.ChatRoomType;
 import com.patrol.domain.chatRoom.repository.ChatRoomRepository;
@@ -14,10 +12,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,7 +20,6 @@ import java.util.stream.Collectors;
 @Transactional(readOnly=true)
 public class ChatRoomService {
     private final ChatRoomRepository chatRoomRepository;
-    private final ChatMessageRepository chatMessageRepository;
 
     public RsData<Object> getUserChatRooms(Member loginUser) {
         try {
@@ -47,53 +41,31 @@ public class ChatRoomService {
         }
     }
 
+    // 마지막 메시지와 안 읽은 수는 채팅방에 비정규화된 값을 사용 (메시지 테이블 조회 없음)
     private RsData<Object> processChatRooms(List<ChatRoom> chatRooms, Member loginUser) {
-        List<ChatMessage> latestMessages = findLatestMessages(chatRooms);
-
-        Map<Long, ChatMessage> roomToLatestMessage = latestMessages.stream()
-                .collect(Collectors.toMap(
-                        message -> message.getChatRoom().getId(),
-                        message -> message
-                ));
-
-        List<Object[]> unreadCountsResult = chatMessageRepository.countUnreadMessagesForChatRoomsByReceiverId(
-                chatRooms, loginUser.getId());
-
-        Map<Long, Integer> roomToUnreadCount = new HashMap<>();
-        for (Object[] result : unreadCountsResult) {
-            Long roomId = (Long) result[0];
-            Long count = (Long) result[1];
-            roomToUnreadCount.put(roomId, count.intValue());
-        }
-
         List<ChatRoomResponseDto> chatRoomDtos = chatRooms.stream()
-                .map(room -> {
-                    ChatMessage latestMessage = roomToLatestMessage.get(room.getId());
-                    ResponseMessage messageDto = null;
-                    if (latestMessage != null) {
-                        messageDto = ResponseMessage.builder()
-                                .id(latestMessage.getId())
-                                .content(latestMessage.getContent())
-                                .sender(new MemberResponseDto(latestMessage.getSender()))
-                                .receiver(new MemberResponseDto(latestMessage.getReceiver()))
-                                .postId(room.getPostId())
-                                .timestamp(latestMessage.getCreatedAt())
-                                .isRead(latestMessage.isRead())
-                                .messageType(latestMessage.getMessageType())
-                                .build();
-                    }
-                    int unreadCount = roomToUnreadCount.getOrDefault(room.getId(), 0);
-                    return new ChatRoomResponseDto(room, messageDto, unreadCount);
-                })
+                .map(room -> new ChatRoomResponseDto(room, toLastMessageDto(room), room.getUnreadCountOf(loginUser.getId())))
                 .collect(Collectors.toList());
 
         return new RsData<>("200", "채팅방 목록 조회 성공", chatRoomDtos);
     }
 
-    public List<ChatMessage> findLatestMessages(List<ChatRoom> chatRooms) {
-        return chatRooms.stream()
-                .map(chatRoom -> chatMessageRepository.findLatestMessageForChatRoom(chatRoom))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+    private ResponseMessage toLastMessageDto(ChatRoom room) {
+        if (room.getLastMessageId() == null) {
+            return null;
+        }
+        boolean sentByMember1 = room.getMember1().getId().equals(room.getLastMessageSenderId());
+        Member sender = sentByMember1 ? room.getMember1() : room.getMember2();
+        Member receiver = sentByMember1 ? room.getMember2() : room.getMember1();
+        return ResponseMessage.builder()
+                .id(room.getLastMessageId())
+                .content(room.getLastMessageContent())
+                .sender(new MemberResponseDto(sender))
+                .receiver(new MemberResponseDto(receiver))
+                .postId(room.getPostId())
+                .timestamp(room.getLastMessageAt())
+                .isRead(room.getUnreadCountOf(receiver.getId()) == 0)
+                .messageType(room.getLastMessageType())
+                .build();
     }
 }
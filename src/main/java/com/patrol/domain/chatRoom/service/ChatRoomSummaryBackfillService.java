@@ -0,0 +1,78 @@
+package com.patrol.domain.chatRoom.service;
+
+import com.patrol.domain.chatMessage.entity.ChatMessage;
+import com.patrol.domain.chatMessage.repository.ChatMessageRepository;
+import com.patrol.domain.chatRoom.entity.ChatRoom;
+import com.patrol.domain.chatRoom.repository.ChatRoomRepository;
+import com.patrol.global.backfill.ChunkedBackfill;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// 마지막 메시지/안 읽은 수 컬럼 추가 이전에 만들어진 채팅방의 요약을 채우는 일회성 작업
+// 엔티티를 고쳐 flush 하면 그 사이 커밋된 실시간 갱신(updateLastMessage, incrementUnreadCount)을 덮어쓰므로 조건부 UPDATE 로 반영한다
+@Service
+@RequiredArgsConstructor
+public class ChatRoomSummaryBackfillService implements ChunkedBackfill {
+    private final ChatRoomRepository chatRoomRepository;
+    private final ChatMessageRepository chatMessageRepository;
+
+    @Value("${app.chat.room-summary-backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.chat.room-summary-backfill.chunk-size:500}")
+    private int chunkSize;
+
+    @Override
+    public String backfillName() {
+        return "채팅방 요약 채우기";
+    }
+
+    @Override
+    public boolean isBackfillEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public int backfillChunkSize() {
+        return chunkSize;
+    }
+
+    @Override
+    @Transactional
+    public Long backfillChunk(Long lastId, int chunkSize) {
+        List<ChatRoom> chunk = chatRoomRepository.findMissingSummaryAfter(lastId, PageRequest.of(0, chunkSize));
+        if (chunk.isEmpty()) {
+            return null;
+        }
+
+        for (ChatRoom chatRoom : chunk) {
+            ChatMessage latest = chatMessageRepository.findLatestMessageForChatRoom(chatRoom);
+            if (latest == null) {
+                continue;
+            }
+
+            int member1UnreadCount = 0;
+            int member2UnreadCount = 0;
+            for (Object[] row : chatMessageRepository.countUnreadMessagesByReceiver(chatRoom)) {
+                Long receiverId = (Long) row[0];
+                int count = ((Long) row[1]).intValue();
+                if (chatRoom.getMember1() != null && chatRoom.getMember1().getId().equals(receiverId)) {
+                    member1UnreadCount = count;
+                } else if (chatRoom.getMember2() != null && chatRoom.getMember2().getId().equals(receiverId)) {
+                    member2UnreadCount = count;
+                }
+            }
+
+            chatRoomRepository.backfillSummary(chatRoom.getId(), latest.getId(), latest.getCreatedAt(),
+                    latest.getContent(), latest.getMessageType(),
+                    latest.getSender() != null ? latest.getSender().getId() : null,
+                    member1UnreadCount, member2UnreadCount);
+        }
+        return chunk.get(chunk.size() - 1).getId();
+    }
+}
@@ -33,14 +33,22 @@ public class Image {
     @Enumerated(EnumType.STRING)
     private AnimalType animalType;
 
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "perceptual_hash")
+    private Long perceptualHash;
+
     @Builder
     public Image(String path, Long animalId, Long foundId,
-                 PostStatus status, AnimalType animalType) {
+                 PostStatus status, AnimalType animalType, String contentHash, Long perceptualHash) {
         this.path = path;
         this.animalId = animalId;
         this.foundId = foundId;
         this.status = status;
         this.animalType = animalType;
+        this.contentHash = contentHash;
+        this.perceptualHash = perceptualHash;
         this.createdAt = LocalDateTime.now();
     }
 
@@ -14,7 +14,7 @@ public interface ImageHandlerService {
 
     void deleteImageByPath(String path);
 
-    Image registerImage (String imageUrl, Long animalId, Long foundId, PostStatus status, AnimalType animalType);
+    Image registerImage (String imageUrl, Long animalId, Long foundId, PostStatus status, AnimalType animalType, String contentHash, Long perceptualHash);
 
     List<Image> uploadAndRegisterImages (List<MultipartFile> files, String folderPath, Long animalId, Long foundId, PostStatus status, AnimalType animalType);
 
@@ -41,7 +41,7 @@ public class ImageHandlerServiceImpl implements ImageHandlerService {
 
     @Override
     @Transactional
-    public Image registerImage (String imageUrl, Long animalId, Long foundId, PostStatus status, AnimalType animalType) {
+    public Image registerImage (String imageUrl, Long animalId, Long foundId, PostStatus status, AnimalType animalType, String contentHash, Long perceptualHash) {
 
         Image image = Image.builder()
                 .path(imageUrl)
@@ -49,6 +49,8 @@ public class ImageHandlerServiceImpl implements ImageHandlerService {
                 .foundId(foundId)
                 .status(status)
                 .animalType(animalType)
+                .contentHash(contentHash)
+                .perceptualHash(perceptualHash)
                 .build();
 
         Image savedImage = imageRepository.save(image);
@@ -81,7 +83,7 @@ public class ImageHandlerServiceImpl implements ImageHandlerService {
                         uploadedPaths.add(fileName);
 
                         String imageUrl = createImageUrl(folderPath, fileName);
-                        Image image = registerImage(imageUrl, animalId, foundId, status, animalType);
+                        Image image = registerImage(imageUrl, animalId, foundId, status, animalType, uploadResult.getContentHash(), uploadResult.getPerceptualHash());
                         savedImages.add(image);
                     }
                 }
@@ -121,7 +123,7 @@ public class ImageHandlerServiceImpl implements ImageHandlerService {
                     PostStatus status = (existingImage != null) ? existingImage.getStatus() : null;
                     AnimalType animalType = (existingImage != null) ? existingImage.getAnimalType() : null;
 
-                    Image image = registerImage(imageUrl, animalId, foundId, status, animalType);
+                    Image image = registerImage(imageUrl, animalId, foundId, status, animalType, uploadResult.getContentHash(), uploadResult.getPerceptualHash());
                     savedImages.add(image);
                 }
             }
@@ -102,6 +102,8 @@ public class ImageService {
                             .path(imageUrl)
                             .animalId(animalId)
                             .foundId(foundId)
+                            .contentHash(uploadResult.getContentHash())
+                            .perceptualHash(uploadResult.getPerceptualHash())
                             .build();
 
                     Image savedImage = imageRepository.save(imageEntity);
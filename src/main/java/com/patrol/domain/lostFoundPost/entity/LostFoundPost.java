@@ -9,11 +9,13 @@ import com.patrol.domain.comment.entity.Comment;
 import com.patrol.domain.image.entity.Image;
 import com.patrol.domain.member.member.entity.Member;
 import com.patrol.global.jpa.BaseEntity;
+import com.patrol.standard.util.Ut;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -21,8 +23,13 @@ import java.util.List;
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "lost_found_post")
+@Table(name = "lost_found_post", indexes = {
+        @Index(name = "idx_lost_found_post_geo_cell", columnList = "geo_cell, status, animal_type"),
+        @Index(name = "idx_lost_found_post_lost_at", columnList = "status, animal_type, lost_at"),
+        @Index(name = "idx_lost_found_post_find_at", columnList = "status, animal_type, find_at")
+})
 public class LostFoundPost extends BaseEntity implements Postable {
+    public static final int GEO_CELL_PRECISION = 5;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id")
@@ -42,8 +49,8 @@ public class LostFoundPost extends BaseEntity implements Postable {
     @Enumerated(EnumType.STRING)
     private AnimalType animalType;
 
-    @OneToOne(mappedBy = "lostFoundPost", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    private AiImage aiImage;
+    @OneToMany(mappedBy = "lostFoundPost", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<AiImage> aiImages = new ArrayList<>();
 
     private String title;
     private String content;
@@ -56,6 +63,17 @@ public class LostFoundPost extends BaseEntity implements Postable {
     private PostStatus status;
     private Integer reward;
 
+    // 위경도의 geohash 셀, 반경 검색 시 후보를 셀 단위로 먼저 좁히는 데 사용
+    @Column(name = "geo_cell", length = GEO_CELL_PRECISION)
+    private String geoCell;
+
+    // lostTime/findTime 을 해석한 시각, 매칭 후보를 시간 창으로 좁히는 데 사용 (해석 불가면 null)
+    @Column(name = "lost_at")
+    private LocalDateTime lostAt;
+
+    @Column(name = "find_at")
+    private LocalDateTime findAt;
+
     public LostFoundPost(LostFoundPostRequestDto requestDto, Member author) {
         this(requestDto);
         this.author = author;
@@ -100,6 +118,32 @@ public class LostFoundPost extends BaseEntity implements Postable {
         this.pet = pet;
     }
 
+    @PrePersist
+    @PreUpdate
+    public void updateDerivedColumns() {
+        updateGeoCell();
+        updateEventTimes();
+    }
+
+    public void updateGeoCell() {
+        this.geoCell = (latitude != null && longitude != null)
+                ? Ut.geo.geohash(latitude, longitude, GEO_CELL_PRECISION)
+                : null;
+    }
+
+    public void updateEventTimes() {
+        this.lostAt = Ut.date.parseLenient(lostTime);
+        this.findAt = Ut.date.parseLenient(findTime);
+    }
+
+    // 분실/발견 시각, 둘 다 없거나 해석할 수 없으면 작성 시각
+    public LocalDateTime getEventAt() {
+        if (findAt != null) {
+            return findAt;
+        }
+        return lostAt != null ? lostAt : getCreatedAt();
+    }
+
     public void addImage(Image image) {
         if (this.images == null) {
             this.images = new ArrayList<>();
@@ -0,0 +1,12 @@
+package com.patrol.domain.lostFoundPost.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// 게시글이 수정되거나(deleted=false) 삭제됨(deleted=true)
+@Getter
+@RequiredArgsConstructor
+public class LostFoundPostChangedEvent {
+    private final Long postId;
+    private final boolean deleted;
+}
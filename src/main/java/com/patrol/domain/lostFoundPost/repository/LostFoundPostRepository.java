@@ -62,4 +62,19 @@ public interface LostFoundPostRepository extends JpaRepository<LostFoundPost, Lo
     Page<LostFoundPost> findByStatusAndRewardNotNull(@Param("status") PostStatus status, Pageable pageable);
     Optional<LostFoundPost> findById (Long foundId);
 
+    @Query("""
+    SELECT p FROM LostFoundPost p
+    WHERE p.id > :lastId AND p.geoCell IS NULL AND p.latitude IS NOT NULL AND p.longitude IS NOT NULL
+    ORDER BY p.id ASC
+""")
+    List<LostFoundPost> findMissingGeoCellAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    @Query("""
+    SELECT p FROM LostFoundPost p
+    WHERE p.id > :lastId
+      AND ((p.lostTime IS NOT NULL AND p.lostAt IS NULL) OR (p.findTime IS NOT NULL AND p.findAt IS NULL))
+    ORDER BY p.id ASC
+""")
+    List<LostFoundPost> findMissingEventTimeAfter(@Param("lastId") Long lastId, Pageable pageable);
+
 }
@@ -0,0 +1,62 @@
+package com.patrol.domain.lostFoundPost.service;
+
+import com.patrol.domain.lostFoundPost.entity.LostFoundPost;
+import com.patrol.domain.lostFoundPost.event.LostFoundPostChangedEvent;
+import com.patrol.domain.lostFoundPost.repository.LostFoundPostRepository;
+import com.patrol.global.backfill.ChunkedBackfill;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// lost_at/find_at 컬럼 추가 이전에 저장된 게시글의 분실/발견 시각을 채우는 일회성 작업
+// 해석할 수 없는 문자열은 계속 null 로 남아 기동할 때마다 다시 확인하지만, 키셋으로 한 번씩만 훑는다
+// 시각이 채워진 게시글은 커밋 후 임베딩 인덱스에 다시 색인된다 (LostFoundPostChangeListener)
+@Service
+@RequiredArgsConstructor
+public class EventTimeBackfillService implements ChunkedBackfill {
+    private final LostFoundPostRepository lostFoundPostRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.lost-found.event-time-backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.lost-found.event-time-backfill.chunk-size:500}")
+    private int chunkSize;
+
+    @Override
+    public String backfillName() {
+        return "게시글 분실/발견 시각 채우기";
+    }
+
+    @Override
+    public boolean isBackfillEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public int backfillChunkSize() {
+        return chunkSize;
+    }
+
+    @Override
+    @Transactional
+    public Long backfillChunk(Long lastId, int chunkSize) {
+        List<LostFoundPost> chunk = lostFoundPostRepository.findMissingEventTimeAfter(lastId, PageRequest.of(0, chunkSize));
+        if (chunk.isEmpty()) {
+            return null;
+        }
+
+        for (LostFoundPost post : chunk) {
+            post.updateEventTimes();
+            if (post.getLostAt() != null || post.getFindAt() != null) {
+                eventPublisher.publishEvent(new LostFoundPostChangedEvent(post.getId(), false));
+            }
+        }
+        return chunk.get(chunk.size() - 1).getId();
+    }
+}
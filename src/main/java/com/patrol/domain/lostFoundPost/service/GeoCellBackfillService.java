@@ -0,0 +1,52 @@
+package com.patrol.domain.lostFoundPost.service;
+
+import com.patrol.domain.lostFoundPost.entity.LostFoundPost;
+import com.patrol.domain.lostFoundPost.repository.LostFoundPostRepository;
+import com.patrol.global.backfill.ChunkedBackfill;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// geo_cell 컬럼 추가 이전에 저장된 게시글의 셀 값을 채우는 일회성 작업
+@Service
+@RequiredArgsConstructor
+public class GeoCellBackfillService implements ChunkedBackfill {
+    private final LostFoundPostRepository lostFoundPostRepository;
+
+    @Value("${app.lost-found.geo-cell-backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.lost-found.geo-cell-backfill.chunk-size:500}")
+    private int chunkSize;
+
+    @Override
+    public String backfillName() {
+        return "게시글 geo_cell 채우기";
+    }
+
+    @Override
+    public boolean isBackfillEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public int backfillChunkSize() {
+        return chunkSize;
+    }
+
+    @Override
+    @Transactional
+    public Long backfillChunk(Long lastId, int chunkSize) {
+        List<LostFoundPost> chunk = lostFoundPostRepository.findMissingGeoCellAfter(lastId, PageRequest.of(0, chunkSize));
+        if (chunk.isEmpty()) {
+            return null;
+        }
+
+        chunk.forEach(LostFoundPost::updateGeoCell);
+        return chunk.get(chunk.size() - 1).getId();
+    }
+}
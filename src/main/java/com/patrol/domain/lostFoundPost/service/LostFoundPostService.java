@@ -13,6 +13,7 @@ import com.patrol.domain.comment.service.CommentService;
 import com.patrol.domain.image.service.ImageHandlerService;
 import com.patrol.domain.lostFoundPost.entity.LostFoundPost;
 import com.patrol.domain.lostFoundPost.entity.PostStatus;
+import com.patrol.domain.lostFoundPost.event.LostFoundPostChangedEvent;
 import com.patrol.domain.lostFoundPost.repository.LostFoundPostRepository;
 import com.patrol.domain.image.entity.Image;
 import com.patrol.domain.image.repository.ImageRepository;
@@ -22,12 +23,14 @@ import com.patrol.global.exception.CustomException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -40,6 +43,7 @@ public class LostFoundPostService {
     private final ImageHandlerService imageHandlerService;
     private final AiImageService aiImageService;
     private final CommentService commentService;
+    private final ApplicationEventPublisher eventPublisher;
     private static final String FOLDER_PATH = "lostfoundpost/";
 
     @Transactional
@@ -67,7 +71,7 @@ public class LostFoundPostService {
         }
 
         getSavedImages(images, lostFoundPost);
-        aiImageService.saveAiImages(images, lostFoundPost.getId(), lostFoundPost);
+        aiImageService.saveAiImages(lostFoundPost.getId(), lostFoundPost);
         return LostFoundPostResponseDto.from(lostFoundPost);
     }
 
@@ -99,7 +103,16 @@ public class LostFoundPostService {
             }
         }
 
-        return getSavedImages(images, lostFoundPost);
+        LostFoundPostResponseDto response = getSavedImages(images, lostFoundPost);
+        if (images != null && !images.isEmpty()) {
+            aiImageService.saveAiImages(postId, lostFoundPost);
+        }
+        // 영속성 컨텍스트를 비우므로 게시글 엔티티를 다 고친 뒤에 호출한다
+        if (requestDto.getStatus() != null) {
+            aiImageService.updateStatus(postId, lostFoundPost.getStatus());
+        }
+        eventPublisher.publishEvent(new LostFoundPostChangedEvent(postId, false));
+        return response;
     }
 
     @Transactional
@@ -114,6 +127,7 @@ public class LostFoundPostService {
 
         try {
             lostFoundPostRepository.deleteById(postId);
+            eventPublisher.publishEvent(new LostFoundPostChangedEvent(postId, true));
         } catch (Exception e) {
             log.error("이미지 삭제가 되지 않습니다. {}: {}", postId, e.getMessage());
         }
@@ -136,6 +150,17 @@ public class LostFoundPostService {
     }
 
 
+    // 요청한 ID 순서를 유지하고, 삭제된 게시글은 건너뛴다
+    @Transactional(readOnly = true)
+    public List<LostFoundPostResponseDto> getLostFoundPostsByIds(List<Long> postIds) {
+        Map<Long, LostFoundPost> posts = lostFoundPostRepository.findAllById(postIds).stream()
+                .collect(Collectors.toMap(LostFoundPost::getId, post -> post));
+        return postIds.stream()
+                .filter(posts::containsKey)
+                .map(postId -> LostFoundPostResponseDto.from(posts.get(postId)))
+                .toList();
+    }
+
     @Transactional(readOnly = true)
     public List<LostFoundPostResponseDto> getLostFoundPostsWithinRadius(double latitude, double longitude, double radius) {
         List<LostFoundPost> lostFoundPosts = lostFoundPostRepository.findPostsWithinRadius(latitude, longitude, radius);
@@ -3,17 +3,19 @@ package com.patrol.domain.notification.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.patrol.api.notification.dto.NotificationResponse;
+import com.patrol.global.webSocket.StompDestinations;
+import com.patrol.global.webSocket.StompFanout;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
 public class NotificationConsumer {
-    private final SimpMessagingTemplate messagingTemplate;
+    private final StompFanout stompFanout;
+    private final StompDestinations stompDestinations;
     private final Logger logger = LoggerFactory.getLogger(com.patrol.domain.notification.service.NotificationConsumer.class);
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -24,8 +26,8 @@ public class NotificationConsumer {
             NotificationResponse message = objectMapper.readValue(messageJson, NotificationResponse.class);
             String userId = message.getUserId().toString();
 
-            messagingTemplate.convertAndSend(
-                    "/queue/notification/"+ userId,
+            stompFanout.send(
+                    stompDestinations.notification(userId),
                     message
             );
 
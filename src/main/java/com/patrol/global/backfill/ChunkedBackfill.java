@@ -0,0 +1,21 @@
+package com.patrol.global.backfill;
+
+/**
+ * 컬럼 추가 이전에 저장된 행을 키셋 순서로 조금씩 채우는 일회성 작업.
+ * 구현체는 도메인 서비스이고, 기동 시 {@link ChunkedBackfillRunner} 가 차례로 실행한다.
+ */
+public interface ChunkedBackfill {
+
+    // 로그에 남길 작업 이름
+    String backfillName();
+
+    boolean isBackfillEnabled();
+
+    int backfillChunkSize();
+
+    /**
+     * lastId 이후의 행을 chunkSize 만큼 처리한다.
+     * 처리할 행이 없으면 null, 있으면 마지막으로 처리한 ID를 반환한다.
+     */
+    Long backfillChunk(Long lastId, int chunkSize);
+}
@@ -0,0 +1,54 @@
+package com.patrol.global.backfill;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// 등록된 ChunkedBackfill 을 기동 후 한 스레드에서 차례로 실행한다 (하나가 실패해도 나머지는 계속)
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ChunkedBackfillRunner {
+    private final List<ChunkedBackfill> backfills;
+
+    @FunctionalInterface
+    public interface ChunkFunction {
+        Long apply(Long lastId, int chunkSize);
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void runAll() {
+        for (ChunkedBackfill backfill : backfills) {
+            if (backfill.isBackfillEnabled()) {
+                run(backfill.backfillName(), backfill.backfillChunkSize(), backfill::backfillChunk);
+            }
+        }
+    }
+
+    /**
+     * lastId 0 부터 chunk 가 null 을 반환할 때까지 청크 단위로 실행한다.
+     */
+    public void run(String name, int chunkSize, ChunkFunction chunk) {
+        long startTime = System.currentTimeMillis();
+        Long lastId = 0L;
+        int chunks = 0;
+
+        try {
+            while ((lastId = chunk.apply(lastId, chunkSize)) != null) {
+                chunks++;
+                log.info("🔄 {} 진행 중: lastId={}", name, lastId);
+            }
+            if (chunks > 0) {
+                log.info("✅ {} 완료: {}개 청크, {}ms", name, chunks, System.currentTimeMillis() - startTime);
+            }
+        } catch (Exception e) {
+            log.error("🚨 {} 실패: {}", name, e.getMessage(), e);
+        }
+    }
+}
@@ -1,13 +1,16 @@
 package com.patrol.global.redis;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 // Redis 설정을 위한 Config, Redis 연결 및 템플릿 설정을 담당
@@ -55,4 +58,18 @@ public class RedisConfig {
   public StringRedisTemplate stringRedisTemplate() {
     return new StringRedisTemplate(redisConnectionFactory());
   }
+
+  // STOMP 팬아웃(RedisStompFanout) 채널 구독용 컨테이너, 시작/종료는 컨텍스트 라이프사이클을 따른다
+  // 메시지 전달은 가상 스레드에서 실행해 채널 수만큼 플랫폼 스레드가 늘지 않게 한다
+  @Bean
+  @ConditionalOnProperty(name = "app.websocket.broker.mode", havingValue = "redis")
+  public RedisMessageListenerContainer stompFanoutListenerContainer() {
+    SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("stomp-fanout-");
+    executor.setVirtualThreads(true);
+
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(redisConnectionFactory());
+    container.setTaskExecutor(executor);
+    return container;
+  }
 }
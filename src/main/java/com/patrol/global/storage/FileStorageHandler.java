@@ -2,10 +2,12 @@ package com.patrol.global.storage;
 
 import com.patrol.global.error.ErrorCode;
 import com.patrol.global.exception.CustomException;
+import com.patrol.standard.util.Ut;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayInputStream;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -37,12 +39,17 @@ public class FileStorageHandler {
             String extension = getFileExtension(contentType);
             String filename = UUID.randomUUID().toString() + extension;
 
+            // 같은 사진의 재업로드(해시)와 재인코딩/스크린샷(dHash)을 식별하기 위해 업로드하는 바이트의 해시를 함께 계산
+            byte[] bytes = request.getFile().getBytes();
+            String contentHash = Ut.hash.sha256Hex(bytes);
+            Long perceptualHash = Ut.hash.dHash(bytes);
+
             HashMap<String, Object> options = new HashMap<>();
             options.put(StorageService.CONTENT_TYPE, contentType);
-            options.put("contentLength", request.getFile().getSize());
+            options.put("contentLength", (long) bytes.length);
 
             String filePath = request.getFolderPath() + filename;
-            storageService.upload(filePath, request.getFile().getInputStream(), options);
+            storageService.upload(filePath, new ByteArrayInputStream(bytes), options);
 
             // ✅ 절대 URL 반환하도록 수정
             String fullUrl = "https://kr.object.ncloudstorage.com/" + bucketName + "/" + filePath;
@@ -50,6 +57,8 @@ public class FileStorageHandler {
             return FileUploadResult.builder()
                     .fileName(filename)
                     .fullPath(fullUrl)  // 절대경로 반환
+                    .contentHash(contentHash)
+                    .perceptualHash(perceptualHash)
                     .build();
 
         } catch (Exception e) {
@@ -8,4 +8,6 @@ import lombok.Getter;
 public class FileUploadResult {
     private String fileName;
     private String fullPath;
+    private String contentHash;  // 원본 바이트의 SHA-256
+    private Long perceptualHash; // 64비트 dHash (근접 중복 판별용, 디코딩 실패 시 null)
 }
\ No newline at end of file
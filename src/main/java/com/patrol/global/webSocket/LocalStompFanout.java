@@ -0,0 +1,19 @@
+package com.patrol.global.webSocket;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+// simple: 이 노드의 구독자에게만 전달, relay: 외부 브로커가 모든 노드의 구독자에게 전달
+@Component
+@RequiredArgsConstructor
+@ConditionalOnExpression("'${app.websocket.broker.mode:simple}' != 'redis'")
+public class LocalStompFanout implements StompFanout {
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Override
+    public void send(String destination, Object payload) {
+        messagingTemplate.convertAndSend(destination, payload);
+    }
+}
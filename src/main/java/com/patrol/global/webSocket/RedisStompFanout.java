@@ -0,0 +1,133 @@
+package com.patrol.global.webSocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.AbstractSubProtocolEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Redis pub/sub 으로 여러 노드에 STOMP 메시지를 전달한다.
+ * 목적지마다 채널(ws:fanout:{destination})을 두고, 각 노드는 자기에게 붙은 세션이 구독 중인 목적지의 채널만 구독한다.
+ * 채팅방(/queue/chat/{roomId})과 사용자 알림(/queue/notification/{userId})이 각각 방, 사용자 단위 채널이 되므로
+ * 메시지는 해당 세션을 가진 노드에만 한 번씩 전달되고, 그 노드의 simple broker 가 로컬 세션으로 보낸다.
+ * <p>
+ * Redis 채널 구독은 STOMP SUBSCRIBE 를 받은 뒤 비동기로 완료되므로, 그 사이(보통 수 ms)에 다른 노드가 발행한 메시지는
+ * 이 노드에 전달되지 않는다. pub/sub 은 재전송이 없어 이 구간을 서버에서 메울 수 없다.
+ * 채팅 메시지는 DB 에 저장되므로 클라이언트는 구독한 뒤 GET /api/v1/chat/rooms/{identifier}/messages 로 목록을 받아 보완해야 한다.
+ * 같은 목적지를 이 노드에서 이미 구독 중이면 채널 구독이 살아 있어 이 구간이 없다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.websocket.broker.mode", havingValue = "redis")
+public class RedisStompFanout implements StompFanout, ApplicationListener<AbstractSubProtocolEvent> {
+    private static final String CHANNEL_PREFIX = "ws:fanout:";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MessageListener listener = this::deliver;
+
+    // sessionId -> (구독 ID -> 목적지), 목적지 -> 이 노드의 구독 수
+    private final Map<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Integer> localSubscriptions = new HashMap<>();
+
+    public RedisStompFanout(SimpMessagingTemplate messagingTemplate,
+                            StringRedisTemplate redisTemplate,
+                            RedisMessageListenerContainer stompFanoutListenerContainer,
+                            ObjectMapper objectMapper) {
+        this.messagingTemplate = messagingTemplate;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.listenerContainer = stompFanoutListenerContainer;
+    }
+
+    @Override
+    public void send(String destination, Object payload) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL_PREFIX + destination, objectMapper.writeValueAsString(payload));
+        } catch (Exception e) {
+            // Redis 장애 시 최소한 이 노드의 구독자에게는 전달
+            log.warn("⚠️ STOMP 팬아웃 발행 실패, 로컬로만 전달: destination={}, {}", destination, e.getMessage());
+            messagingTemplate.convertAndSend(destination, payload);
+        }
+    }
+
+    @Override
+    public void onApplicationEvent(AbstractSubProtocolEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String sessionId = accessor.getSessionId();
+        if (sessionId == null) {
+            return;
+        }
+
+        if (event instanceof SessionSubscribeEvent) {
+            String destination = accessor.getDestination();
+            if (destination != null && accessor.getSubscriptionId() != null) {
+                String previous = sessions.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>())
+                        .put(accessor.getSubscriptionId(), destination);
+                if (previous != null) {
+                    release(previous);
+                }
+                acquire(destination);
+            }
+        } else if (event instanceof SessionUnsubscribeEvent) {
+            Map<String, String> subscriptions = sessions.get(sessionId);
+            String destination = subscriptions != null && accessor.getSubscriptionId() != null
+                    ? subscriptions.remove(accessor.getSubscriptionId()) : null;
+            if (destination != null) {
+                release(destination);
+            }
+        } else if (event instanceof SessionDisconnectEvent) {
+            Map<String, String> subscriptions = sessions.remove(sessionId);
+            if (subscriptions != null) {
+                subscriptions.values().forEach(this::release);
+            }
+        }
+    }
+
+    // 이 노드에서 처음 구독하는 목적지면 채널을 구독한다
+    private synchronized void acquire(String destination) {
+        if (localSubscriptions.merge(destination, 1, Integer::sum) == 1) {
+            listenerContainer.addMessageListener(listener, new ChannelTopic(CHANNEL_PREFIX + destination));
+        }
+    }
+
+    // 마지막 구독이 사라지면 채널 구독을 해제한다
+    private synchronized void release(String destination) {
+        if (!localSubscriptions.containsKey(destination)) {
+            return;
+        }
+        Integer remaining = localSubscriptions.computeIfPresent(destination, (key, count) -> count > 1 ? count - 1 : null);
+        if (remaining == null) {
+            listenerContainer.removeMessageListener(listener, new ChannelTopic(CHANNEL_PREFIX + destination));
+        }
+    }
+
+    private void deliver(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        try {
+            messagingTemplate.convertAndSend(channel.substring(CHANNEL_PREFIX.length()),
+                    objectMapper.readTree(message.getBody()));
+        } catch (Exception e) {
+            log.error("🚨 STOMP 팬아웃 전달 실패: channel={}, {}", channel, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.patrol.global.webSocket;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 채팅방, 읽음 확인, 사용자 알림의 STOMP 목적지.
+ * simple/redis 는 노드 내 simple broker 가 /queue/** 를 구독자 전원에게 보내므로 /queue/chat/{roomId} 형태를 그대로 쓴다.
+ * relay 의 외부 브로커(RabbitMQ 등)에서 /queue 는 구독자 중 한 명에게만 가는 점대점 큐라서
+ * 여러 명이 구독하는 채팅방과 여러 탭이 구독하는 알림은 /topic 으로 보낸다.
+ * 브로커의 라우팅 키에는 '/' 를 쓸 수 없으므로 relay 목적지는 '.' 로 구분한다 (/topic/chat.{roomId}).
+ */
+@Component
+public class StompDestinations {
+    private final boolean relay;
+
+    public StompDestinations(@Value("${app.websocket.broker.mode:simple}") String brokerMode) {
+        this.relay = "relay".equals(brokerMode);
+    }
+
+    public String chatRoom(String roomIdentifier) {
+        return relay ? "/topic/chat." + roomIdentifier : "/queue/chat/" + roomIdentifier;
+    }
+
+    public String readReceipt(String roomIdentifier) {
+        return relay ? "/topic/chat." + roomIdentifier + ".read" : "/queue/chat/" + roomIdentifier + "/read";
+    }
+
+    public String notification(String userId) {
+        return relay ? "/topic/notification." + userId : "/queue/notification/" + userId;
+    }
+
+    // 채팅방 메시지 구독이면 방 식별자, 아니면 null (읽음 확인 등 하위 목적지 제외)
+    public String roomIdentifierOf(String destination) {
+        String prefix = relay ? "/topic/chat." : "/queue/chat/";
+        if (destination == null || !destination.startsWith(prefix)) {
+            return null;
+        }
+
+        String roomId = destination.substring(prefix.length());
+        if (roomId.isEmpty() || roomId.contains("/") || roomId.contains(".")) {
+            return null;
+        }
+        return roomId;
+    }
+}
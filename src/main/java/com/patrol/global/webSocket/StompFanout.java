@@ -0,0 +1,9 @@
+package com.patrol.global.webSocket;
+
+/**
+ * STOMP 목적지로 메시지를 내보내는 경로.
+ * 노드가 여러 대일 때 구독 세션이 있는 노드까지 전달하는 방법은 app.websocket.broker.mode 로 고른다.
+ */
+public interface StompFanout {
+    void send(String destination, Object payload);
+}
@@ -1,5 +1,6 @@
 package com.patrol.global.webSocket;
 
+import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationListener;
@@ -11,33 +12,39 @@ import org.springframework.web.socket.messaging.SessionSubscribeEvent;
 import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
 
 import java.security.Principal;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.Set;
-//dkfsd
 
+// STOMP 구독/해제/연결 종료 이벤트를 채팅 접속 상태 저장소에 반영
 @Component
+@RequiredArgsConstructor
 public class WebSocketEventListener implements ApplicationListener<AbstractSubProtocolEvent> {
-    private static final ConcurrentHashMap<String, Set<String>> roomSubscriptions = new ConcurrentHashMap<>();
     private static final Logger logger = LoggerFactory.getLogger(WebSocketEventListener.class);
 
+    private final WebSocketPresenceRegistry presenceRegistry;
+    private final StompDestinations stompDestinations;
+
     @Override
     public void onApplicationEvent(AbstractSubProtocolEvent event) {
         StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
-        String userId = getUserId(accessor);
+        String sessionId = accessor.getSessionId();
+
+        // 연결 종료 시에는 세션에 기록해 둔 구독만 정리하면 된다
+        if (event instanceof SessionDisconnectEvent) {
+            presenceRegistry.disconnect(sessionId);
+            return;
+        }
 
+        String userId = getUserId(accessor);
         if (userId == null) {
             logger.warn("User ID not found in WebSocket session");
             return;
         }
 
         if (event instanceof SessionSubscribeEvent) {
-            handleSubscription(accessor, userId);
+            handleSubscription(accessor, sessionId, userId);
         } else if (event instanceof SessionUnsubscribeEvent) {
-            handleUnsubscription(accessor, userId);
-        } else if (event instanceof SessionDisconnectEvent) {
-            handleDisconnect(userId);
+            // UNSUBSCRIBE 프레임에는 destination 이 없으므로 구독 ID 로 찾는다
+            presenceRegistry.unsubscribe(sessionId, accessor.getSubscriptionId());
         }
     }
 
@@ -57,62 +64,14 @@ public class WebSocketEventListener implements ApplicationListener<AbstractSubPr
         return null;
     }
 
-    private void handleSubscription(StompHeaderAccessor accessor, String userId) {
-        String destination = accessor.getDestination();
-
-        if (destination != null && destination.startsWith("/queue/chat/")) {
-            String roomId = destination.substring("/queue/chat/".length());
-
-            roomSubscriptions.computeIfAbsent(roomId, k -> ConcurrentHashMap.newKeySet())
-                    .add(userId);
-
-            logger.info("User {} subscribed to room {}", userId, roomId);
-        }
-    }
-
-    private void handleUnsubscription(StompHeaderAccessor accessor, String userId) {
-        String destination = accessor.getDestination();
-
-        if (destination != null && destination.startsWith("/queue/chat/")) {
-            String roomId = destination.substring("/queue/chat/".length());
-            Set<String> subscribers = roomSubscriptions.get(roomId);
-
-            if (subscribers != null) {
-                subscribers.remove(userId);
-                logger.info("User {} unsubscribed from room {}", userId, roomId);
-            }
-        }
-    }
-
-    private void handleDisconnect(String userId) {
-        // 모든 구독에서 사용자 제거
-        for (Map.Entry<String, Set<String>> entry : roomSubscriptions.entrySet()) {
-            if (entry.getValue().remove(userId)) {
-                logger.info("User {} removed from room {} due to disconnect", userId, entry.getKey());
-            }
-        }
-    }
-
-    /**
-     * 특정 사용자가 특정 채팅방에 구독 중인지 확인
-     */
-    public static boolean isSubscribedToRoom(String userId, String roomId) {
-        Set<String> subscribers = roomSubscriptions.get(roomId);
-        return subscribers != null && subscribers.contains(userId);
-    }
-
-    /**
-     * 사용자가 구독 중인 모든 채팅방 ID 목록 반환
-     */
-    public static Set<String> getUserSubscribedRooms(String userId) {
-        Set<String> rooms = new HashSet<>();
-
-        for (Map.Entry<String, Set<String>> entry : roomSubscriptions.entrySet()) {
-            if (entry.getValue().contains(userId)) {
-                rooms.add(entry.getKey());
-            }
+    private void handleSubscription(StompHeaderAccessor accessor, String sessionId, String userId) {
+        // 채팅방 메시지 목적지만 채팅방 구독으로 본다 (읽음 확인 등 하위 목적지 제외)
+        String roomId = stompDestinations.roomIdentifierOf(accessor.getDestination());
+        if (roomId == null) {
+            return;
         }
 
-        return rooms;
+        presenceRegistry.subscribe(sessionId, userId, accessor.getSubscriptionId(), roomId);
+        logger.info("User {} subscribed to room {}", userId, roomId);
     }
-}
\ No newline at end of file
+}
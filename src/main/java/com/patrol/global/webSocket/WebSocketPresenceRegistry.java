@@ -0,0 +1,234 @@
+package com.patrol.global.webSocket;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 채팅방 구독 현황(presence)을 모든 노드가 공유하도록 Redis 에 기록한다.
+ * - 방 -> 사용자: chat:presence:room:{roomId} (ZSET, member=userId|nodeId, score=만료 시각)
+ * - 사용자 -> 방: chat:presence:user:{userId} (ZSET, member=roomId|nodeId, score=만료 시각)
+ * 멤버를 노드별로 나눠, 한 노드에서 구독을 해제해도 다른 노드의 구독은 남는다. 살아 있는 멤버가 하나라도 있으면 온라인이다.
+ * 이 노드에 연결된 세션의 구독은 로컬에 들고 있다가 heartbeat 마다 만료 시각을 연장하므로,
+ * 노드가 비정상 종료돼도 ttl 이 지나면 자연히 오프라인으로 보인다.
+ * 연결 종료 시에는 그 세션이 구독한 방에서 이 노드의 멤버만 정리한다. 조회 결과는 짧게 로컬에 캐시하고, Redis 장애 시에는 로컬 세션만으로 판단한다.
+ */
+@Slf4j
+@Component
+public class WebSocketPresenceRegistry {
+    private static final String ROOM_KEY_PREFIX = "chat:presence:room:";
+    private static final String USER_KEY_PREFIX = "chat:presence:user:";
+
+    private final StringRedisTemplate redisTemplate;
+    // 기동마다 새로 정해, 재기동 전 멤버는 ttl 로만 만료된다
+    private final String nodeId = UUID.randomUUID().toString();
+    private final long ttlMillis;
+    private final long nearCacheTtlMillis;
+
+    // 이 노드에 연결된 세션: sessionId -> (사용자, 구독 ID -> 방)
+    private final Map<String, LocalSession> localSessions = new ConcurrentHashMap<>();
+    // (방, 사용자) -> 이 노드에서 구독 중인 구독 수
+    private final Map<PresenceKey, Integer> localSubscriptions = new ConcurrentHashMap<>();
+    private final Map<PresenceKey, CachedPresence> nearCache = new ConcurrentHashMap<>();
+
+    private record LocalSession(String userId, Map<String, String> roomsBySubscription) {
+    }
+
+    private record PresenceKey(String roomId, String userId) {
+    }
+
+    private record CachedPresence(boolean present, long expiresAt) {
+    }
+
+    public WebSocketPresenceRegistry(StringRedisTemplate redisTemplate,
+                                     @Value("${app.chat.presence.ttl-ms:90000}") long ttlMillis,
+                                     @Value("${app.chat.presence.near-cache-ttl-ms:1000}") long nearCacheTtlMillis) {
+        this.redisTemplate = redisTemplate;
+        this.ttlMillis = ttlMillis;
+        this.nearCacheTtlMillis = nearCacheTtlMillis;
+    }
+
+    public void subscribe(String sessionId, String userId, String subscriptionId, String roomId) {
+        String previous = localSessions.computeIfAbsent(sessionId, id -> new LocalSession(userId, new ConcurrentHashMap<>()))
+                .roomsBySubscription().put(subscriptionId, roomId);
+        if (previous != null) {
+            release(userId, Set.of(previous));
+        }
+        PresenceKey key = new PresenceKey(roomId, userId);
+        localSubscriptions.merge(key, 1, Integer::sum);
+        nearCache.remove(key);
+        write(Map.of(userId, Set.of(roomId)));
+    }
+
+    public void unsubscribe(String sessionId, String subscriptionId) {
+        LocalSession session = localSessions.get(sessionId);
+        String roomId = session != null ? session.roomsBySubscription().remove(subscriptionId) : null;
+        if (roomId != null) {
+            release(session.userId(), Set.of(roomId));
+        }
+    }
+
+    public void disconnect(String sessionId) {
+        LocalSession session = localSessions.remove(sessionId);
+        if (session != null) {
+            release(session.userId(), session.roomsBySubscription().values());
+        }
+    }
+
+    /**
+     * 사용자가 어느 노드에서든 해당 채팅방을 구독 중인지 확인
+     */
+    public boolean isSubscribedToRoom(String userId, String roomId) {
+        if (isLocallySubscribed(userId, roomId)) {
+            return true;
+        }
+
+        PresenceKey key = new PresenceKey(roomId, userId);
+        long now = System.currentTimeMillis();
+        CachedPresence cached = nearCache.get(key);
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.present();
+        }
+
+        try {
+            // 1:1 채팅방이라 방의 멤버는 (사용자 2명 x 접속 노드 수) 정도로 작다
+            Set<String> members = redisTemplate.opsForZSet()
+                    .rangeByScore(ROOM_KEY_PREFIX + roomId, now, Double.POSITIVE_INFINITY);
+            boolean present = members != null && members.stream().anyMatch(member -> owner(member).equals(userId));
+            nearCache.put(key, new CachedPresence(present, now + nearCacheTtlMillis));
+            return present;
+        } catch (Exception e) {
+            log.warn("⚠️ 채팅 접속 상태 조회 실패, 로컬 세션으로 판단: userId={}, roomId={}, {}", userId, roomId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 사용자가 구독 중인 모든 채팅방 ID 목록 반환
+     */
+    public Set<String> getUserSubscribedRooms(String userId) {
+        Set<String> rooms = new HashSet<>();
+        localSessions.values().stream()
+                .filter(session -> session.userId().equals(userId))
+                .forEach(session -> rooms.addAll(session.roomsBySubscription().values()));
+
+        try {
+            Set<String> remote = redisTemplate.opsForZSet()
+                    .rangeByScore(USER_KEY_PREFIX + userId, System.currentTimeMillis(), Double.POSITIVE_INFINITY);
+            if (remote != null) {
+                remote.forEach(member -> rooms.add(owner(member)));
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ 채팅 구독 목록 조회 실패, 로컬 세션만 반환: userId={}, {}", userId, e.getMessage());
+        }
+        return rooms;
+    }
+
+    // 로컬 세션의 구독 만료 시각을 연장하고 만료된 항목을 정리한다
+    @Scheduled(fixedDelayString = "${app.chat.presence.heartbeat-ms:30000}")
+    public void heartbeat() {
+        Map<String, Set<String>> roomsByUser = new HashMap<>();
+        localSessions.values().forEach(session -> roomsByUser
+                .computeIfAbsent(session.userId(), userId -> new HashSet<>())
+                .addAll(session.roomsBySubscription().values()));
+        roomsByUser.values().removeIf(Set::isEmpty);
+        if (!roomsByUser.isEmpty()) {
+            write(roomsByUser);
+        }
+        nearCache.values().removeIf(cached -> cached.expiresAt() <= System.currentTimeMillis());
+    }
+
+    @PreDestroy
+    public void close() {
+        new HashSet<>(localSessions.keySet()).forEach(this::disconnect);
+    }
+
+    private boolean isLocallySubscribed(String userId, String roomId) {
+        return localSubscriptions.containsKey(new PresenceKey(roomId, userId));
+    }
+
+    private String member(String id) {
+        return id + "|" + nodeId;
+    }
+
+    // userId|nodeId, roomId|nodeId 에서 노드 부분을 뗀다 (nodeId 에는 '|' 가 없다)
+    private static String owner(String member) {
+        return member.substring(0, member.lastIndexOf('|'));
+    }
+
+    private void write(Map<String, Set<String>> roomsByUser) {
+        long now = System.currentTimeMillis();
+        double expiresAt = now + ttlMillis;
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    roomsByUser.forEach((userId, roomIds) -> {
+                        String userKey = USER_KEY_PREFIX + userId;
+                        for (String roomId : roomIds) {
+                            String roomKey = ROOM_KEY_PREFIX + roomId;
+                            ops.opsForZSet().add(roomKey, member(userId), expiresAt);
+                            ops.opsForZSet().removeRangeByScore(roomKey, 0, now);
+                            ops.expire(roomKey, ttlMillis, TimeUnit.MILLISECONDS);
+                            ops.opsForZSet().add(userKey, member(roomId), expiresAt);
+                        }
+                        ops.opsForZSet().removeRangeByScore(userKey, 0, now);
+                        ops.expire(userKey, ttlMillis, TimeUnit.MILLISECONDS);
+                    });
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            log.warn("⚠️ 채팅 접속 상태 기록 실패: {}", e.getMessage());
+        }
+    }
+
+    // 같은 사용자의 다른 로컬 세션이 아직 구독 중인 방은 남기고, 다른 노드의 멤버는 건드리지 않는다
+    private void release(String userId, Collection<String> roomIds) {
+        Set<String> released = new HashSet<>();
+        for (String roomId : roomIds) {
+            PresenceKey key = new PresenceKey(roomId, userId);
+            localSubscriptions.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+            nearCache.remove(key);
+            if (!isLocallySubscribed(userId, roomId)) {
+                released.add(roomId);
+            }
+        }
+        if (released.isEmpty()) {
+            return;
+        }
+
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    for (String roomId : released) {
+                        ops.opsForZSet().remove(ROOM_KEY_PREFIX + roomId, member(userId));
+                    }
+                    ops.opsForZSet().remove(USER_KEY_PREFIX + userId, released.stream().map(WebSocketPresenceRegistry.this::member).toArray());
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            log.warn("⚠️ 채팅 접속 상태 해제 실패: userId={}, {}", userId, e.getMessage());
+        }
+    }
+}
@@ -5,8 +5,29 @@ import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import lombok.SneakyThrows;
 import javax.crypto.SecretKey;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.Iterator;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 
 public class Ut {
@@ -111,4 +132,206 @@ public class Ut {
       }
     }
   }
+
+  public static class hash {
+    // 바이트 배열의 SHA-256 해시 (소문자 16진수 64자)
+    public static String sha256Hex(byte[] bytes) {
+      try {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    private static final int DHASH_WIDTH = 9;
+    private static final int DHASH_HEIGHT = 8;
+
+    /**
+     * 64비트 dHash (difference hash).
+     * 9x8 흑백으로 줄인 뒤 각 행에서 왼쪽 픽셀이 오른쪽보다 밝으면 1.
+     * 재인코딩/리사이즈/스크린샷 정도의 차이는 해밍 거리가 작게 유지된다. 디코딩할 수 없으면 null.
+     */
+    public static Long dHash(byte[] bytes) {
+      try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+          return null;
+        }
+
+        ImageReader reader = readers.next();
+        BufferedImage decoded;
+        try {
+          reader.setInput(input, true, true);
+          // 9x8 로 줄일 것이므로 큰 이미지는 디코딩 단계에서 서브샘플링
+          ImageReadParam param = reader.getDefaultReadParam();
+          int subsampling = Math.max(1, Math.min(reader.getWidth(0), reader.getHeight(0)) / (DHASH_WIDTH * 8));
+          param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+          decoded = reader.read(0, param);
+        } finally {
+          reader.dispose();
+        }
+
+        BufferedImage gray = new BufferedImage(DHASH_WIDTH, DHASH_HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g2d = gray.createGraphics();
+        try {
+          g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+          g2d.drawImage(decoded, 0, 0, DHASH_WIDTH, DHASH_HEIGHT, null);
+        } finally {
+          g2d.dispose();
+        }
+
+        long hash = 0L;
+        for (int y = 0; y < DHASH_HEIGHT; y++) {
+          for (int x = 0; x < DHASH_WIDTH - 1; x++) {
+            int left = gray.getRaster().getSample(x, y, 0);
+            int right = gray.getRaster().getSample(x + 1, y, 0);
+            hash = (hash << 1) | (left > right ? 1L : 0L);
+          }
+        }
+        return hash;
+      } catch (Exception e) {
+        return null;
+      }
+    }
+  }
+
+  public static class date {
+    private static final ZoneId SEOUL = ZoneId.of("Asia/Seoul");
+    private static final List<DateTimeFormatter> DATE_TIME_FORMATS = List.of(
+        DateTimeFormatter.ofPattern("yyyy-M-d[ ]['T']H:m[:s][.SSS]"),
+        DateTimeFormatter.ofPattern("yyyy.M.d[.][ ]H:m[:s]"),
+        DateTimeFormatter.ofPattern("yyyy/M/d[ ]H:m[:s]"),
+        DateTimeFormatter.ofPattern("yyyy년 M월 d일 H시[ m분]")
+    );
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+        DateTimeFormatter.ofPattern("yyyy-M-d"),
+        DateTimeFormatter.ofPattern("yyyy.M.d[.]"),
+        DateTimeFormatter.ofPattern("yyyy/M/d"),
+        DateTimeFormatter.ofPattern("yyyyMMdd"),
+        DateTimeFormatter.ofPattern("yyyy년 M월 d일")
+    );
+
+    /**
+     * 자유 형식 날짜/시각 문자열을 LocalDateTime 으로 변환한다 (해석할 수 없으면 null).
+     * ISO-8601(오프셋 포함 시 서울 시각으로 변환), "2025-02-10 14:30", "2025.02.10", "2025년 2월 10일 오후 3시" 등을 지원한다.
+     */
+    public static LocalDateTime parseLenient(String text) {
+      if (text == null || text.isBlank()) {
+        return null;
+      }
+      String value = text.trim();
+      try {
+        return OffsetDateTime.parse(value).atZoneSameInstant(SEOUL).toLocalDateTime();
+      } catch (DateTimeParseException ignored) {
+      }
+
+      // "오전/오후 h시" 는 24시간제로 바꿔서 해석 (오전 12시는 0시, 오후 12시는 12시)
+      boolean am = value.contains("오전");
+      boolean pm = value.contains("오후");
+      value = value.replace("오전", "").replace("오후", "").replaceAll("\\s+", " ").trim();
+      for (DateTimeFormatter format : DATE_TIME_FORMATS) {
+        try {
+          LocalDateTime parsed = LocalDateTime.parse(value, format);
+          if (am && parsed.getHour() == 12) {
+            return parsed.minusHours(12);
+          }
+          return pm && parsed.getHour() < 12 ? parsed.plusHours(12) : parsed;
+        } catch (DateTimeParseException ignored) {
+        }
+      }
+      for (DateTimeFormatter format : DATE_FORMATS) {
+        try {
+          return LocalDate.parse(value, format).atStartOfDay();
+        } catch (DateTimeParseException ignored) {
+        }
+      }
+      return null;
+    }
+  }
+
+  public static class geo {
+    private static final double EARTH_RADIUS_KM = 6371;
+
+    // 두 좌표 사이의 대권 거리(km)
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+      double dLat = Math.toRadians(lat2 - lat1);
+      double dLng = Math.toRadians(lng2 - lng1);
+      double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+          + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+          * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+      return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static final String GEOHASH_BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    // 좌표의 geohash (precision 5 는 약 4.9km x 3.9km, 위도 37도 기준)
+    public static String geohash(double lat, double lng, int precision) {
+      double minLat = -90, maxLat = 90, minLng = -180, maxLng = 180;
+      StringBuilder hash = new StringBuilder(precision);
+      boolean evenBit = true;
+      int bit = 0, ch = 0;
+
+      while (hash.length() < precision) {
+        if (evenBit) {
+          double mid = (minLng + maxLng) / 2;
+          if (lng >= mid) {
+            ch = (ch << 1) | 1;
+            minLng = mid;
+          } else {
+            ch <<= 1;
+            maxLng = mid;
+          }
+        } else {
+          double mid = (minLat + maxLat) / 2;
+          if (lat >= mid) {
+            ch = (ch << 1) | 1;
+            minLat = mid;
+          } else {
+            ch <<= 1;
+            maxLat = mid;
+          }
+        }
+        evenBit = !evenBit;
+        if (++bit == 5) {
+          hash.append(GEOHASH_BASE32.charAt(ch));
+          bit = 0;
+          ch = 0;
+        }
+      }
+      return hash.toString();
+    }
+
+    // 중심에서 radiusKm 이내 영역을 덮는 geohash 셀 목록 (경계 밖 셀이 포함될 수 있음)
+    public static Set<String> coveringGeohashes(double lat, double lng, double radiusKm, int precision) {
+      int lngBits = (precision * 5 + 1) / 2;
+      int latBits = precision * 5 / 2;
+      double cellLng = 360.0 / (1L << lngBits);
+      double cellLat = 180.0 / (1L << latBits);
+
+      double dLat = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+      double minLat = Math.max(-90, lat - dLat);
+      double maxLat = Math.min(90, lat + dLat);
+      double maxAbsLat = Math.max(Math.abs(minLat), Math.abs(maxLat));
+      double dLng = maxAbsLat >= 89.9 ? 180 : Math.toDegrees(radiusKm / (EARTH_RADIUS_KM * Math.cos(Math.toRadians(maxAbsLat))));
+      dLng = Math.min(180, dLng);
+
+      Set<String> cells = new LinkedHashSet<>();
+      for (double y = minLat; ; y = Math.min(maxLat, y + cellLat)) {
+        for (double x = lng - dLng; ; x = Math.min(lng + dLng, x + cellLng)) {
+          cells.add(geohash(y, normalizeLng(x), precision));
+          if (x >= lng + dLng) {
+            break;
+          }
+        }
+        if (y >= maxLat) {
+          break;
+        }
+      }
+      return cells;
+    }
+
+    private static double normalizeLng(double lng) {
+      return ((lng + 180) % 360 + 360) % 360 - 180;
+    }
+  }
 }
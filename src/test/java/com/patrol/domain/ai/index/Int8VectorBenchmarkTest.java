@@ -0,0 +1,69 @@
+package com.patrol.domain.ai.index;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static com.patrol.domain.ai.index.TestVectors.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 2만 개 코퍼스에서 float32 전수 비교와 int8 점수 + 원본 재정렬의 질의당 지연 시간, 메모리, recall@k 를 비교한다.
+ * test 태스크에서는 제외되며 ./gradlew benchmark 로 실행한다. 측정값은 테스트 리포트에 남긴다.
+ */
+@Tag("benchmark")
+class Int8VectorBenchmarkTest {
+    private static final int CORPUS_SIZE = 20_000;
+    private static final int CLUSTERS = 2_000;
+    private static final int QUERIES = 200;
+    private static final int K = 10;
+    private static final int RERANK = 50;
+
+    @Test
+    void int8ScoringWithRerankKeepsExactTopK(TestReporter reporter) {
+        Random random = new Random(42);
+        float[][] corpus = clusteredCorpus(random, CORPUS_SIZE, CLUSTERS);
+        Int8Vector[] quantized = Arrays.stream(corpus).map(Int8Vector::quantize).toArray(Int8Vector[]::new);
+
+        long exactNanos = 0;
+        long int8Nanos = 0;
+        int int8Hits = 0;
+        int rerankHits = 0;
+        for (float[] query : queries(corpus, random, QUERIES)) {
+            long start = System.nanoTime();
+            Set<Integer> exact = topK(i -> dot(query, corpus[i]), CORPUS_SIZE, K);
+            exactNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            Int8Vector quantizedQuery = Int8Vector.quantize(query);
+            List<Integer> shortlist = ranked(i -> quantizedQuery.dot(quantized[i]), IntStream.range(0, CORPUS_SIZE), RERANK);
+            Set<Integer> reranked = new HashSet<>(ranked(i -> dot(query, corpus[i]), shortlist.stream().mapToInt(i -> i), K));
+            int8Nanos += System.nanoTime() - start;
+
+            int8Hits += intersection(exact, new HashSet<>(shortlist.subList(0, K)));
+            rerankHits += intersection(exact, reranked);
+        }
+
+        double rerankRecall = (double) rerankHits / (QUERIES * K);
+        long float32Bytes = (long) CORPUS_SIZE * DIMENSION * Float.BYTES;
+        long int8Bytes = (long) CORPUS_SIZE * (DIMENSION + Float.BYTES);
+        reporter.publishEntry(Map.of(
+                "exactMsPerQuery", String.format("%.3f", exactNanos / 1e6 / QUERIES),
+                "int8RerankMsPerQuery", String.format("%.3f", int8Nanos / 1e6 / QUERIES),
+                "float32Kb", String.valueOf(float32Bytes / 1024),
+                "int8Kb", String.valueOf(int8Bytes / 1024),
+                "int8OnlyRecall", String.format("%.4f", (double) int8Hits / (QUERIES * K)),
+                "int8RerankRecall", String.format("%.4f", rerankRecall)));
+
+        assertThat(rerankRecall).isGreaterThanOrEqualTo(0.99);
+        assertThat(int8Bytes).isLessThan(float32Bytes / 3);
+    }
+}
@@ -0,0 +1,74 @@
+package com.patrol.domain.ai.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static com.patrol.domain.ai.index.TestVectors.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * int8 양자화 점수가 float32 정확 점수에 가깝고, 원본 재정렬까지 거치면 같은 상위 k를 찾는지(recall@k) 확인한다.
+ * 지연 시간과 메모리 비교는 Int8VectorBenchmarkTest (./gradlew benchmark).
+ */
+class Int8VectorTest {
+    private static final int CORPUS_SIZE = 2_000;
+    private static final int CLUSTERS = 200;
+    private static final int QUERIES = 50;
+    private static final int K = 10;
+    private static final int RERANK = 50;
+
+    @Test
+    void quantizedDotIsCloseToExact() {
+        Random random = new Random(1);
+        for (int i = 0; i < 1_000; i++) {
+            float[] a = unit(randomVector(random));
+            float[] b = unit(randomVector(random));
+            assertThat(Int8Vector.quantize(a).dot(Int8Vector.quantize(b)))
+                    .isCloseTo(dot(a, b), within(0.02));
+        }
+    }
+
+    @Test
+    void int8ShortlistWithRerankKeepsExactTopK() {
+        Random random = new Random(42);
+        float[][] corpus = clusteredCorpus(random, CORPUS_SIZE, CLUSTERS);
+        Int8Vector[] quantized = Arrays.stream(corpus).map(Int8Vector::quantize).toArray(Int8Vector[]::new);
+
+        int hits = 0;
+        for (float[] query : queries(corpus, random, QUERIES)) {
+            Set<Integer> exact = topK(i -> dot(query, corpus[i]), CORPUS_SIZE, K);
+            Int8Vector quantizedQuery = Int8Vector.quantize(query);
+            List<Integer> shortlist = ranked(i -> quantizedQuery.dot(quantized[i]), IntStream.range(0, CORPUS_SIZE), RERANK);
+            hits += intersection(exact, new HashSet<>(ranked(i -> dot(query, corpus[i]), shortlist.stream().mapToInt(i -> i), K)));
+        }
+
+        assertThat((double) hits / (QUERIES * K)).isGreaterThanOrEqualTo(0.99);
+    }
+
+    @Test
+    void hnswOverInt8FindsExactNeighbors() {
+        Random random = new Random(7);
+        float[][] corpus = clusteredCorpus(random, CORPUS_SIZE, CLUSTERS);
+        HnswIndex index = new HnswIndex(16, 100);
+        for (int i = 0; i < corpus.length; i++) {
+            index.add(i, corpus[i]);
+        }
+
+        int hits = 0;
+        for (float[] query : queries(corpus, random, QUERIES)) {
+            Set<Integer> exact = topK(i -> dot(query, corpus[i]), corpus.length, K);
+            IntStream candidates = index.search(query, RERANK, 100, id -> true).stream()
+                    .mapToInt(result -> (int) result.id());
+            hits += intersection(exact, new HashSet<>(ranked(i -> dot(query, corpus[i]), candidates, K)));
+        }
+
+        assertThat((double) hits / (QUERIES * K)).isGreaterThanOrEqualTo(0.9);
+    }
+}
@@ -0,0 +1,95 @@
+package com.patrol.domain.ai.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PerceptualHashTableTest {
+    // 켜진 비트 32개, 대역마다 고르게 섞인 해시
+    private static final long HASH = 0x5A3C_96E1_0F87_D24BL;
+
+    @Test
+    void maxDistanceZeroFindsOnlyExactHash() {
+        PerceptualHashTable table = new PerceptualHashTable(0);
+        table.put(1L, HASH);
+
+        assertThat(table.nearest(HASH)).isEqualTo(new PerceptualHashTable.Match(1L, 0));
+        assertThat(table.nearest(HASH ^ 1L)).isNull();
+        assertThat(table.nearest(HASH ^ (1L << 63))).isNull();
+    }
+
+    @Test
+    void maxDistanceFourFindsHashesWithOneFlipPerBand() {
+        PerceptualHashTable table = new PerceptualHashTable(4);
+        table.put(1L, HASH);
+
+        // 대역 5개(경계 0, 12, 25, 38, 51) 중 4개에 한 비트씩: 비둘기집 원리로 남은 한 대역이 같아야 찾는다
+        long fourFlips = HASH ^ (1L << 0) ^ (1L << 12) ^ (1L << 25) ^ (1L << 38);
+        assertThat(table.nearest(fourFlips)).isEqualTo(new PerceptualHashTable.Match(1L, 4));
+
+        long fiveFlips = fourFlips ^ (1L << 51);
+        assertThat(table.nearest(fiveFlips)).isNull();
+
+        // 한 대역 안에 몰린 4비트 차이도 다른 대역이 같으므로 찾는다
+        long sameBand = HASH ^ 0xFL;
+        assertThat(table.nearest(sameBand)).isEqualTo(new PerceptualHashTable.Match(1L, 4));
+    }
+
+    @Test
+    void maxDistanceSixtyThreeUsesOneBitBands() {
+        PerceptualHashTable table = new PerceptualHashTable(63);
+        table.put(1L, HASH);
+
+        long farthest = ~HASH ^ 1L;
+        assertThat(table.nearest(farthest)).isEqualTo(new PerceptualHashTable.Match(1L, 63));
+        assertThat(table.nearest(~HASH)).isNull();
+    }
+
+    @Test
+    void nearestPrefersSmallestDistance() {
+        PerceptualHashTable table = new PerceptualHashTable(4);
+        table.put(1L, HASH ^ 0b111L);
+        table.put(2L, HASH ^ 0b1L);
+        table.put(3L, HASH ^ 0b11L);
+
+        assertThat(table.nearest(HASH)).isEqualTo(new PerceptualHashTable.Match(2L, 1));
+    }
+
+    @Test
+    void putReplacesAndRemoveDeletesFromAllBands() {
+        PerceptualHashTable table = new PerceptualHashTable(4);
+        table.put(1L, HASH);
+        table.put(1L, ~HASH);
+
+        assertThat(table.size()).isEqualTo(1);
+        assertThat(table.nearest(HASH)).isNull();
+        assertThat(table.nearest(~HASH)).isEqualTo(new PerceptualHashTable.Match(1L, 0));
+
+        table.remove(1L);
+        assertThat(table.size()).isZero();
+        assertThat(table.nearest(~HASH)).isNull();
+        table.remove(1L);
+    }
+
+    @Test
+    void flatImageHashesAreNeitherIndexedNorQueried() {
+        PerceptualHashTable table = new PerceptualHashTable(4);
+        table.put(1L, 0L);
+        table.put(2L, -1L);
+        table.put(3L, 0x7FL);
+
+        assertThat(table.size()).isZero();
+        assertThat(table.nearest(0L)).isNull();
+        assertThat(table.nearest(0x1L)).isNull();
+
+        table.put(4L, 0xFFL);
+        assertThat(table.nearest(0xFFL)).isEqualTo(new PerceptualHashTable.Match(4L, 0));
+    }
+
+    @Test
+    void rejectsOutOfRangeMaxDistance() {
+        assertThatThrownBy(() -> new PerceptualHashTable(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new PerceptualHashTable(64)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,96 @@
+package com.patrol.domain.ai.index;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * 같은 개체를 여러 장 찍은 것처럼 군집 중심 주변에 흩뿌린 512차원 단위 벡터와 정확 top-k 계산.
+ */
+final class TestVectors {
+    static final int DIMENSION = 512;
+
+    private TestVectors() {
+    }
+
+    interface Scorer {
+        double score(int index);
+    }
+
+    static float[][] clusteredCorpus(Random random, int size, int clusters) {
+        float[][] centers = new float[clusters][];
+        for (int i = 0; i < clusters; i++) {
+            centers[i] = unit(randomVector(random));
+        }
+        float[][] corpus = new float[size][];
+        for (int i = 0; i < size; i++) {
+            corpus[i] = perturb(centers[i % clusters], 0.6f, random);
+        }
+        return corpus;
+    }
+
+    // 코퍼스의 이미지를 다른 각도에서 다시 찍은 것처럼 약간 흔든 질의
+    static float[][] queries(float[][] corpus, Random random, int count) {
+        float[][] queries = new float[count][];
+        for (int i = 0; i < count; i++) {
+            queries[i] = perturb(corpus[random.nextInt(corpus.length)], 0.4f, random);
+        }
+        return queries;
+    }
+
+    static Set<Integer> topK(Scorer scorer, int size, int k) {
+        return new HashSet<>(ranked(scorer, IntStream.range(0, size), k));
+    }
+
+    static List<Integer> ranked(Scorer scorer, IntStream indexes, int k) {
+        return indexes.boxed()
+                .map(i -> new double[]{i, scorer.score(i)})
+                .sorted(Comparator.comparingDouble((double[] scored) -> scored[1]).reversed())
+                .limit(k)
+                .map(scored -> (int) scored[0])
+                .toList();
+    }
+
+    static int intersection(Set<Integer> a, Set<Integer> b) {
+        Set<Integer> common = new HashSet<>(a);
+        common.retainAll(b);
+        return common.size();
+    }
+
+    static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    static float[] unit(float[] vector) {
+        double norm = Math.sqrt(dot(vector, vector));
+        float[] result = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            result[i] = (float) (vector[i] / norm);
+        }
+        return result;
+    }
+
+    static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static float[] perturb(float[] base, float noise, Random random) {
+        float[] noiseVector = unit(randomVector(random));
+        float[] result = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            result[i] = base[i] + noise * noiseVector[i];
+        }
+        return unit(result);
+    }
+}
@@ -0,0 +1,136 @@
+package com.patrol.domain.ai.similarity;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patrol.domain.ai.service.SimilarityCandidate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * ai/main.py 의 /compare-embeddings (torch 코사인 유사도) 와 결과가 같은지 검증한다.
+ * reference-cases.json 은 같은 식을 float64 로 다시 구현해 계산한 기대값이라 Java 구현의 자기 일관성만 확인한다.
+ * 실제 파이썬 코드와의 패리티는 ai/tools/record_parity_fixtures.py 로 기록한 python-parity.json 이 있을 때만 검증한다.
+ */
+class SimilarityEngineTest {
+    private static final double TOLERANCE = 1e-5;
+
+    static Stream<VectorOps> vectorOps() {
+        List<VectorOps> ops = new ArrayList<>();
+        ops.add(new ScalarVectorOps());
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            ops.add(new SimdVectorOps());
+        }
+        return ops.stream();
+    }
+
+    @ParameterizedTest
+    @MethodSource("vectorOps")
+    void matchesReferenceCases(VectorOps vectorOps) throws IOException {
+        JsonNode cases = loadCases("/similarity/reference-cases.json");
+        assertThat(cases).isNotNull();
+        assertMatches(new SimilarityEngine(vectorOps), cases);
+    }
+
+    @ParameterizedTest
+    @MethodSource("vectorOps")
+    void matchesPythonParityFixture(VectorOps vectorOps) throws IOException {
+        JsonNode cases = loadCases("/similarity/python-parity.json");
+        assumeTrue(cases != null, "python-parity.json 없음: ai/tools/record_parity_fixtures.py 로 기록");
+        assertMatches(new SimilarityEngine(vectorOps), cases);
+    }
+
+    @ParameterizedTest
+    @MethodSource("vectorOps")
+    void scoreAgainstMatchesPairwiseComparison(VectorOps vectorOps) {
+        SimilarityEngine engine = new SimilarityEngine(vectorOps);
+        Random random = new Random(42);
+        float[] queryEmbedding = randomVector(random, 512);
+
+        // 병렬 계산 경로까지 포함되도록 충분히 많은 후보를 만든다
+        List<SimilarityCandidate> candidates = new ArrayList<>();
+        for (long id = 0; id < 300; id++) {
+            candidates.add(new SimilarityCandidate(id, randomVector(random, 512)));
+        }
+
+        double[] scores = engine.scoreAgainst(queryEmbedding, candidates);
+
+        assertThat(scores).hasSize(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            double expected = engine.cosine(queryEmbedding, candidates.get(i).embedding());
+            assertThat(scores[i]).isCloseTo(expected, within(1e-12));
+        }
+    }
+
+    @Test
+    void missingOrMismatchedEmbeddingScoresZero() {
+        SimilarityEngine engine = new SimilarityEngine(new ScalarVectorOps());
+
+        assertThat(engine.cosine(null, new float[]{1, 0})).isZero();
+        assertThat(engine.cosine(new float[]{1, 0}, new float[]{1, 0, 0})).isZero();
+        assertThat(engine.scoreAgainst(new float[]{1, 0}, List.of(new SimilarityCandidate(1L, null)))).containsExactly(0.0);
+    }
+
+    @Test
+    void simdMatchesScalar() {
+        assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(),
+                "jdk.incubator.vector 모듈 없음 (--add-modules jdk.incubator.vector)");
+        VectorOps scalar = new ScalarVectorOps();
+        VectorOps simd = new SimdVectorOps();
+        Random random = new Random(7);
+
+        for (int dimension : new int[]{1, 3, 8, 17, 255, 512, 1031}) {
+            float[] a = randomVector(random, dimension);
+            float[] b = randomVector(random, dimension);
+            assertThat(simd.dot(a, b)).isCloseTo(scalar.dot(a, b), within(1e-3));
+            assertThat(simd.squaredNorm(a)).isCloseTo(scalar.squaredNorm(a), within(1e-3));
+        }
+    }
+
+    private static void assertMatches(SimilarityEngine engine, JsonNode cases) {
+        for (JsonNode testCase : cases) {
+            double actual = engine.cosine(toArray(testCase.get("embedding1")), toArray(testCase.get("embedding2")));
+
+            assertThat(actual)
+                    .as(testCase.get("name").asText())
+                    .isCloseTo(testCase.get("expected").asDouble(), within(TOLERANCE));
+        }
+    }
+
+    // 리소스가 없으면 null
+    private static JsonNode loadCases(String resource) throws IOException {
+        try (InputStream in = SimilarityEngineTest.class.getResourceAsStream(resource)) {
+            return in != null ? new ObjectMapper().readTree(in).get("cases") : null;
+        }
+    }
+
+    private static float[] toArray(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        float[] values = new float[node.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (float) node.get(i).asDouble();
+        }
+        return values;
+    }
+
+    private static float[] randomVector(Random random, int dimension) {
+        float[] values = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            values[i] = (float) random.nextGaussian();
+        }
+        return values;
+    }
+}
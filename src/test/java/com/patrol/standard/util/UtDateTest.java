@@ -0,0 +1,50 @@
+package com.patrol.standard.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UtDateTest {
+
+    @Test
+    void amTwelveIsMidnight() {
+        assertThat(Ut.date.parseLenient("2025년 2월 10일 오전 12시 30분"))
+                .isEqualTo(LocalDateTime.of(2025, 2, 10, 0, 30));
+        assertThat(Ut.date.parseLenient("2025년 2월 10일 오전 9시"))
+                .isEqualTo(LocalDateTime.of(2025, 2, 10, 9, 0));
+    }
+
+    @Test
+    void pmTwelveIsNoon() {
+        assertThat(Ut.date.parseLenient("2025년 2월 10일 오후 12시 30분"))
+                .isEqualTo(LocalDateTime.of(2025, 2, 10, 12, 30));
+        assertThat(Ut.date.parseLenient("2025년 2월 10일 오후 3시"))
+                .isEqualTo(LocalDateTime.of(2025, 2, 10, 15, 0));
+    }
+
+    @Test
+    void isoOffsetIsConvertedToSeoulTime() {
+        assertThat(Ut.date.parseLenient("2025-02-10T05:30:00Z"))
+                .isEqualTo(LocalDateTime.of(2025, 2, 10, 14, 30));
+        assertThat(Ut.date.parseLenient("2025-02-10T14:30:00+09:00"))
+                .isEqualTo(LocalDateTime.of(2025, 2, 10, 14, 30));
+    }
+
+    @Test
+    void dateOnlyIsStartOfDay() {
+        LocalDateTime expected = LocalDateTime.of(2025, 2, 10, 0, 0);
+        assertThat(Ut.date.parseLenient("2025-02-10")).isEqualTo(expected);
+        assertThat(Ut.date.parseLenient("2025.02.10.")).isEqualTo(expected);
+        assertThat(Ut.date.parseLenient("20250210")).isEqualTo(expected);
+        assertThat(Ut.date.parseLenient("2025년 2월 10일")).isEqualTo(expected);
+    }
+
+    @Test
+    void unparseableIsNull() {
+        assertThat(Ut.date.parseLenient(null)).isNull();
+        assertThat(Ut.date.parseLenient("  ")).isNull();
+        assertThat(Ut.date.parseLenient("어제 저녁")).isNull();
+    }
+}